@@ -8,10 +8,16 @@ import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.State;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
@@ -34,15 +40,33 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved=" + approved, userId, null);
     }
 
+    public ResponseEntity<Object> approveBookings(Long userId, List<BookingDecisionDto> decisions) {
+        return patch("/batch", userId, decisions);
+    }
+
     public ResponseEntity<Object> findBookingById(Long bookingId, Long userId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> findAllBookingsByUser(Long userId, State state) {
-        return get("?state=" + state, userId);
+    public ResponseEntity<Object> findAllBookingsByUser(Long userId, State state, LocalDateTime afterStart,
+                                                        Long afterId, Integer size) {
+        return get("?state={state}&afterStart={afterStart}&afterId={afterId}&size={size}", userId,
+                pageParameters(state, afterStart, afterId, size));
+    }
+
+    public ResponseEntity<Object> findAllBookingsByItems(Long userId, State state, LocalDateTime afterStart,
+                                                         Long afterId, Integer size) {
+        return get("/owner?state={state}&afterStart={afterStart}&afterId={afterId}&size={size}", userId,
+                pageParameters(state, afterStart, afterId, size));
     }
 
-    public ResponseEntity<Object> findAllBookingsByItems(Long userId, State state) {
-        return get("/owner?state=" + state, userId);
+    private static Map<String, Object> pageParameters(State state, LocalDateTime afterStart, Long afterId,
+                                                      Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
+        parameters.put("afterStart", afterStart);
+        parameters.put("afterId", afterId);
+        parameters.put("size", size);
+        return parameters;
     }
 }
\ No newline at end of file
@@ -1,11 +1,19 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.State;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/bookings")
@@ -26,6 +34,13 @@ public class BookingController {
         return bookingClient.approveBooking(bookingId, userId, approved);
     }
 
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> approveBookings(
+            @RequestHeader(USER_HEADER) Long userId,
+            @RequestBody @NotEmpty List<@NotNull @Valid BookingDecisionDto> decisions) {
+        return bookingClient.approveBookings(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> findBookingById(@PathVariable Long bookingId,
                                           @RequestHeader(USER_HEADER) Long userId) {
@@ -34,13 +49,23 @@ public class BookingController {
 
     @GetMapping
     public ResponseEntity<Object> findAllBookingsByUser(@RequestHeader(USER_HEADER) Long userId,
-                                                      @RequestParam(defaultValue = "ALL") State state) {
-        return bookingClient.findAllBookingsByUser(userId, state);
+                                                      @RequestParam(defaultValue = "ALL") State state,
+                                                      @RequestParam(required = false)
+                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      LocalDateTime afterStart,
+                                                      @RequestParam(required = false) Long afterId,
+                                                      @RequestParam(required = false) Integer size) {
+        return bookingClient.findAllBookingsByUser(userId, state, afterStart, afterId, size);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> findAllBookingsByItems(@RequestHeader(USER_HEADER) Long userid,
-                                                       @RequestParam(defaultValue = "ALL") State state) {
-        return bookingClient.findAllBookingsByItems(userid, state);
+                                                       @RequestParam(defaultValue = "ALL") State state,
+                                                       @RequestParam(required = false)
+                                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                       LocalDateTime afterStart,
+                                                       @RequestParam(required = false) Long afterId,
+                                                       @RequestParam(required = false) Integer size) {
+        return bookingClient.findAllBookingsByItems(userid, state, afterStart, afterId, size);
     }
 }
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public record BookingDecisionDto(
+        @NotNull
+        Long bookingId,
+        @NotNull
+        Boolean approved
+) {
+}
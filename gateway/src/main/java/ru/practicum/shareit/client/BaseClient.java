@@ -1,9 +1,11 @@
 package ru.practicum.shareit.client;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -12,9 +14,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 @RequiredArgsConstructor
 public class BaseClient {
+    private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+
     protected final RestTemplate rest;
 
     protected ResponseEntity<Object> get(String path) {
@@ -41,6 +47,15 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
+    /**
+     * Передаёт тело запроса на сервер потоком, не разбирая его в шлюзе.
+     */
+    protected ResponseEntity<Object> post(String path, Long userId, MediaType contentType, InputStream body) {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setContentType(contentType);
+        return sendRequest(HttpMethod.POST, path, new HttpEntity<>(new InputStreamResource(body), headers), null);
+    }
+
     protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
@@ -79,7 +94,10 @@ public class BaseClient {
 
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        return sendRequest(method, path, requestEntity, parameters);
+    }
 
+    private ResponseEntity<Object> sendRequest(HttpMethod method, String path, HttpEntity<?> requestEntity, @Nullable Map<String, Object> parameters) {
         ResponseEntity<Object> shareitServerResponse;
         try {
             if (parameters != null) {
@@ -100,9 +118,20 @@ public class BaseClient {
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
+        String idempotencyKey = currentIdempotencyKey();
+        if (idempotencyKey != null) {
+            headers.set(IDEMPOTENCY_HEADER, idempotencyKey);
+        }
         return headers;
     }
 
+    private static String currentIdempotencyKey() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getHeader(IDEMPOTENCY_HEADER);
+        }
+        return null;
+    }
+
     private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
         if (response.getStatusCode().is2xxSuccessful()) {
             return response;
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
@@ -11,6 +12,10 @@ import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class ItemClient extends BaseClient {
 
@@ -34,14 +39,30 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getItemByText(String text) {
-        return get("/search?text=" + text);
+    public ResponseEntity<Object> getItemByText(String text, Long after, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        parameters.put("after", after);
+        parameters.put("size", size);
+        return get("/search?text={text}&after={after}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> getSimilarItems(String text) {
+        return get("/search/fuzzy?text={text}", null, Map.of("text", text));
+    }
+
+    public ResponseEntity<Object> getNameSuggestions(String prefix) {
+        return get("/suggest?prefix={prefix}", null, Map.of("prefix", prefix));
     }
 
     public ResponseEntity<Object> createItem(Long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
+    public ResponseEntity<Object> importItems(Long userId, MediaType contentType, InputStream items) {
+        return post("/batch", userId, contentType, items);
+    }
+
     public ResponseEntity<Object> addComment(Long itemId, Long userId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
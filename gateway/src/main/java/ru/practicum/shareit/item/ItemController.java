@@ -2,11 +2,15 @@ package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.InputStream;
+
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/items")
@@ -19,6 +23,14 @@ public class ItemController {
         return itemClient.createItem(userId, itemDto);
     }
 
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Object> importItems(@RequestHeader(USER_HEADER) Long userId,
+                                              @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                              InputStream items) {
+        return itemClient.importItems(userId, contentType, items);
+    }
+
     @GetMapping("/{itemId}")
     public ResponseEntity<Object> getItemById(@PathVariable Long itemId,
                                @RequestHeader(USER_HEADER) Long userId) {
@@ -31,8 +43,20 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> getItemByText(@RequestParam("text") String text) {
-        return itemClient.getItemByText(text);
+    public ResponseEntity<Object> getItemByText(@RequestParam("text") String text,
+                                                @RequestParam(required = false) Long after,
+                                                @RequestParam(required = false) Integer size) {
+        return itemClient.getItemByText(text, after, size);
+    }
+
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<Object> getSimilarItems(@RequestParam("text") String text) {
+        return itemClient.getSimilarItems(text);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> getNameSuggestions(@RequestParam("prefix") String prefix) {
+        return itemClient.getNameSuggestions(prefix);
     }
 
     @PatchMapping("/{itemId}")
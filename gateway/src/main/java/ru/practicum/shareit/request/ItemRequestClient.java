@@ -10,6 +10,10 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class ItemRequestClient extends BaseClient {
 
@@ -29,8 +33,12 @@ public class ItemRequestClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllRequests(Long userId) {
-        return get("/all", userId);
+    public ResponseEntity<Object> getAllRequests(Long userId, LocalDateTime afterCreated, Long afterId, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("afterCreated", afterCreated);
+        parameters.put("afterId", afterId);
+        parameters.put("size", size);
+        return get("/all?afterCreated={afterCreated}&afterId={afterId}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> getRequestById(Long requestId) {
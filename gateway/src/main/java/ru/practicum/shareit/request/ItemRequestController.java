@@ -1,10 +1,13 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.time.LocalDateTime;
+
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/requests")
@@ -24,8 +27,13 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(@RequestHeader(USER_HEADER) Long userId) {
-        return itemRequestClient.getAllRequests(userId);
+    public ResponseEntity<Object> getAllRequests(@RequestHeader(USER_HEADER) Long userId,
+                                                 @RequestParam(required = false)
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                 LocalDateTime afterCreated,
+                                                 @RequestParam(required = false) Long afterId,
+                                                 @RequestParam(required = false) Integer size) {
+        return itemRequestClient.getAllRequests(userId, afterCreated, afterId, size);
     }
 
     @GetMapping("/{requestId}")
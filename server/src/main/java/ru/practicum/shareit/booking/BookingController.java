@@ -1,12 +1,16 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -29,6 +33,12 @@ public class BookingController {
         return bookingService.approveBooking(bookingId, userId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingDecisionResultDto> approveBookings(@RequestHeader(USER_HEADER) Long userId,
+                                                          @RequestBody List<BookingDecisionDto> decisions) {
+        return bookingService.approveBookings(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingRespDto getBookingById(@PathVariable Long bookingId,
                                           @RequestHeader(USER_HEADER) Long userId) {
@@ -37,13 +47,23 @@ public class BookingController {
 
     @GetMapping
     public List<BookingRespDto> getAllBookingsByUser(@RequestHeader(USER_HEADER) Long userId,
-                                                      @RequestParam(defaultValue = "ALL") State state) {
-        return bookingService.getAllBookingsByUser(userId, state);
+                                                      @RequestParam(defaultValue = "ALL") State state,
+                                                      @RequestParam(required = false)
+                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      LocalDateTime afterStart,
+                                                      @RequestParam(required = false) Long afterId,
+                                                      @RequestParam(required = false) Integer size) {
+        return bookingService.getAllBookingsByUser(userId, state, afterStart, afterId, size);
     }
 
     @GetMapping("/owner")
     public List<BookingRespDto> getAllBookingsByItems(@RequestHeader(USER_HEADER) Long userid,
-                                                       @RequestParam(defaultValue = "ALL") State state) {
-        return bookingService.getAllBookingsByItems(userid, state);
+                                                       @RequestParam(defaultValue = "ALL") State state,
+                                                       @RequestParam(required = false)
+                                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                       LocalDateTime afterStart,
+                                                       @RequestParam(required = false) Long afterId,
+                                                       @RequestParam(required = false) Integer size) {
+        return bookingService.getAllBookingsByItems(userid, state, afterStart, afterId, size);
     }
 }
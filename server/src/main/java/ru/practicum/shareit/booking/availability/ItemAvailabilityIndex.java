@@ -0,0 +1,256 @@
+package ru.practicum.shareit.booking.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repo.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Занятость вещей: для каждой вещи хранятся интервалы её бронирований в статусах WAITING и APPROVED,
+ * упорядоченные по началу. Интервалы загружаются из базы при первом обращении к вещи и могут пересекаться
+ * (база раньше этого не запрещала), поэтому проверка просматривает все интервалы, начавшиеся раньше конца
+ * нового, но не раньше его начала минус самый длинный из текущих интервалов вещи. Закончившиеся интервалы выбрасываются
+ * при обращении, а вещи хранятся в ограниченном кэше. Вещь, по которой есть незавершённая транзакция,
+ * из кэша не вытесняется: иначе перезагрузка из базы не увидела бы ещё не закоммиченное бронирование.
+ * Изменения по одной вещи сериализуются блокировкой из фиксированного набора, выбираемой по id вещи.
+ */
+@Component
+public class ItemAvailabilityIndex {
+    private static final int STRIPES = 64;
+    private static final List<Status> ACTIVE_STATUSES = List.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, Intervals> intervalsByItem;
+    private final ReentrantLock[] stripes = createStripes();
+
+    public ItemAvailabilityIndex(BookingRepository bookingRepository,
+                                 @Value("${shareit.bookings.availability.max-items:10000}") long maxItems,
+                                 @Value("${shareit.bookings.availability.ttl:PT30M}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        this.intervalsByItem = Caffeine.newBuilder()
+                .maximumWeight(maxItems)
+                .weigher((Long itemId, Intervals intervals) -> intervals.pending > 0 ? 0 : 1)
+                .expireAfter(new PinnedExpiry(ttl))
+                .build();
+    }
+
+    /**
+     * Проверяет, что вещь свободна в [start, end), и под блокировкой вещи сохраняет бронирование.
+     */
+    public Booking reserve(Long itemId, LocalDateTime start, LocalDateTime end, Supplier<Booking> save) {
+        ReentrantLock lock = stripe(itemId);
+        lock.lock();
+        try {
+            Intervals intervals = intervals(itemId);
+            if (intervals.overlaps(start, end) || start.isBefore(intervals.prunedBefore)
+                    && bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(itemId, ACTIVE_STATUSES,
+                    end, start)) {
+                throw new ConflictException("Вещь уже забронирована на это время");
+            }
+            Booking booking = save.get();
+            Slot slot = new Slot(start, booking.getId());
+            intervals.add(slot, end);
+            pinUntilCompletion(itemId, intervals, () -> intervals.remove(slot.bookingId()));
+            return booking;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Long itemId, Long bookingId) {
+        ReentrantLock lock = stripe(itemId);
+        lock.lock();
+        try {
+            Intervals intervals = intervalsByItem.getIfPresent(itemId);
+            if (intervals == null) {
+                return;
+            }
+            // время начала из базы может быть обрезано до микросекунд, поэтому интервал ищется по id
+            Map.Entry<Slot, LocalDateTime> removed = intervals.remove(bookingId);
+            if (removed != null) {
+                pinUntilCompletion(itemId, intervals, () -> intervals.add(removed.getKey(), removed.getValue()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Забывает интервалы вещи, например после удаления её бронирований мимо сервиса.
+     * При следующем обращении они будут заново загружены из базы.
+     */
+    public void forget(Long itemId) {
+        ReentrantLock lock = stripe(itemId);
+        lock.lock();
+        try {
+            intervalsByItem.invalidate(itemId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Intervals intervals(Long itemId) {
+        Intervals intervals = intervalsByItem.getIfPresent(itemId);
+        if (intervals == null) {
+            intervals = new Intervals();
+            for (Booking booking : bookingRepository.findAllByItemIdAndStatusIn(itemId, ACTIVE_STATUSES)) {
+                intervals.add(new Slot(booking.getStart(), booking.getId()), booking.getEnd());
+            }
+            intervalsByItem.put(itemId, intervals);
+        }
+        intervals.prune(LocalDateTime.now());
+        return intervals;
+    }
+
+    // до завершения транзакции вещь не вытесняется из кэша, при откате изменение в интервалах отменяется
+    private void pinUntilCompletion(Long itemId, Intervals intervals, Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        intervals.pending++;
+        intervalsByItem.put(itemId, intervals);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ReentrantLock lock = stripe(itemId);
+                lock.lock();
+                try {
+                    intervals.pending--;
+                    if (status == STATUS_ROLLED_BACK) {
+                        undo.run();
+                    }
+                    if (intervalsByItem.getIfPresent(itemId) == intervals) {
+                        intervalsByItem.put(itemId, intervals);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+
+    private ReentrantLock stripe(Long itemId) {
+        return stripes[Math.floorMod(Objects.hashCode(itemId), STRIPES)];
+    }
+
+    private static ReentrantLock[] createStripes() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * Интервалы одной вещи. Длительности хранятся мультимножеством, чтобы после удаления самого длинного
+     * интервала окно проверки сужалось. Доступ только под блокировкой вещи.
+     */
+    private static final class Intervals {
+        private final TreeMap<Slot, LocalDateTime> slots = new TreeMap<>();
+        private final Map<Long, Slot> slotsById = new HashMap<>();
+        private final TreeMap<Duration, Integer> durations = new TreeMap<>();
+        private LocalDateTime prunedBefore = LocalDateTime.MIN;
+        private int pending;
+
+        private void add(Slot slot, LocalDateTime end) {
+            slots.put(slot, end);
+            slotsById.put(slot.bookingId(), slot);
+            durations.merge(Duration.between(slot.start(), end), 1, Integer::sum);
+        }
+
+        private Map.Entry<Slot, LocalDateTime> remove(Long bookingId) {
+            Slot slot = slotsById.remove(bookingId);
+            if (slot == null) {
+                return null;
+            }
+            LocalDateTime end = slots.remove(slot);
+            forgetDuration(slot, end);
+            return Map.entry(slot, end);
+        }
+
+        private void forgetDuration(Slot slot, LocalDateTime end) {
+            durations.computeIfPresent(Duration.between(slot.start(), end), (duration, count) -> count > 1
+                    ? count - 1 : null);
+        }
+
+        private Duration longest() {
+            return durations.isEmpty() ? Duration.ZERO : durations.lastKey();
+        }
+
+        private boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            LocalDateTime horizon = start.minus(longest());
+            for (Map.Entry<Slot, LocalDateTime> entry
+                    : slots.headMap(new Slot(end, Long.MIN_VALUE), false).descendingMap().entrySet()) {
+                if (entry.getKey().start().isBefore(horizon)) {
+                    return false;
+                }
+                if (entry.getValue().isAfter(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // закончившиеся интервалы с новыми не пересекаются, кроме бронирований задним числом:
+        // их начало раньше prunedBefore, и они дополнительно проверяются по базе
+        private void prune(LocalDateTime now) {
+            Iterator<Map.Entry<Slot, LocalDateTime>> iterator = slots.headMap(new Slot(now, Long.MIN_VALUE), false)
+                    .entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Slot, LocalDateTime> entry = iterator.next();
+                if (!entry.getValue().isAfter(now)) {
+                    iterator.remove();
+                    slotsById.remove(entry.getKey().bookingId());
+                    forgetDuration(entry.getKey(), entry.getValue());
+                }
+            }
+            prunedBefore = now;
+        }
+    }
+
+    private record PinnedExpiry(Duration ttl) implements Expiry<Long, Intervals> {
+        @Override
+        public long expireAfterCreate(Long itemId, Intervals intervals, long currentTime) {
+            return intervals.pending > 0 ? Long.MAX_VALUE : ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long itemId, Intervals intervals, long currentTime, long currentDuration) {
+            return expireAfterCreate(itemId, intervals, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long itemId, Intervals intervals, long currentTime, long currentDuration) {
+            return expireAfterCreate(itemId, intervals, currentTime);
+        }
+    }
+
+    private record Slot(LocalDateTime start, Long bookingId) implements Comparable<Slot> {
+        private static final Comparator<Slot> ORDER = Comparator.comparing(Slot::start)
+                .thenComparing(Slot::bookingId);
+
+        @Override
+        public int compareTo(Slot other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking.dto;
+
+public record BookerDto(
+        Long id
+) {
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.model.Status;
+
+public record BookingDecisionResultDto(
+        Long bookingId,
+        Status status,
+        String error
+) {
+    public static BookingDecisionResultDto applied(Long bookingId, Status status) {
+        return new BookingDecisionResultDto(bookingId, status, null);
+    }
+
+    public static BookingDecisionResultDto failed(Long bookingId, String error) {
+        return new BookingDecisionResultDto(bookingId, null, error);
+    }
+}
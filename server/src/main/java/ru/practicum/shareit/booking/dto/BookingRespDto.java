@@ -1,8 +1,6 @@
 package ru.practicum.shareit.booking.dto;
 
 import ru.practicum.shareit.booking.model.Status;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 
@@ -10,8 +8,8 @@ public record BookingRespDto(
         Long id,
         LocalDateTime start,
         LocalDateTime end,
-        Item item,
-        User booker,
+        BookingItemDto item,
+        BookerDto booker,
         Status status
 ) {
 }
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+public record BookingView(
+        Long id,
+        LocalDateTime start,
+        LocalDateTime end,
+        Long itemId,
+        String itemName,
+        Long bookerId,
+        Status status
+) {
+}
@@ -1,8 +1,11 @@
 package ru.practicum.shareit.booking.mapper;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.dto.BookerDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.model.Item;
@@ -12,7 +15,6 @@ import ru.practicum.shareit.user.model.User;
 public class BookingMapper {
     public static Booking toBooking(BookingDto bookingDto, User user, Item item) {
         var booking = new Booking();
-        booking.setId(bookingDto.itemId());
         booking.setStart(bookingDto.start());
         booking.setEnd(bookingDto.end());
         booking.setItem(item);
@@ -26,9 +28,20 @@ public class BookingMapper {
                 booking.getId(),
                 booking.getStart(),
                 booking.getEnd(),
-                booking.getItem(),
-                booking.getUser(),
+                new BookingItemDto(booking.getItem().getId(), booking.getItem().getName()),
+                new BookerDto(booking.getUser().getId()),
                 booking.getStatus()
         );
     }
+
+    public static BookingRespDto toDto(BookingView view) {
+        return new BookingRespDto(
+                view.id(),
+                view.start(),
+                view.end(),
+                new BookingItemDto(view.itemId(), view.itemName()),
+                new BookerDto(view.bookerId()),
+                view.status()
+        );
+    }
 }
@@ -1,46 +1,139 @@
 package ru.practicum.shareit.booking.repo;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    String AFTER_CURSOR = "AND (b.start < :afterStart OR (b.start = :afterStart AND b.id < :afterId)) ";
+    String NEWEST_FIRST = "ORDER BY b.start DESC, b.id DESC";
+    String VIEWS = "SELECT new ru.practicum.shareit.booking.dto.BookingView(" +
+            "b.id, b.start, b.end, i.id, i.name, b.user.id, b.status) FROM Booking b JOIN b.item i ";
+    String BOOKER_BOOKINGS = VIEWS + "WHERE b.user.id = :userId ";
+    String OWNER_BOOKINGS = VIEWS + "WHERE i.owner.id = :ownerId ";
 
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.user.id = :userId " +
-            "AND b.start <= :now " +
-            "AND b.end >= :now " +
-            "ORDER BY b.start DESC")
-    List<Booking> findCurrentBookings(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+    @Override
+    @EntityGraph("Booking.item")
+    Optional<Booking> findById(Long id);
 
-    @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds")
-    List<Booking> findByItemIdIn(@Param("itemIds") List<Long> itemIds);
+    @EntityGraph("Booking.item")
+    List<Booking> findAllByIdIn(Collection<Long> ids);
 
-    List<Booking> findByUserIdOrderByStartDesc(Long userId);
+    /**
+     * Переводит бронирование владельца вещи из статуса expected в status одним запросом.
+     * Возвращает 0, если бронирование не найдено, принадлежит чужой вещи или уже в другом статусе.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id = :id AND b.status = :expected " +
+            "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = :ownerId)")
+    int transition(@Param("id") Long id,
+                   @Param("ownerId") Long ownerId,
+                   @Param("expected") Status expected,
+                   @Param("status") Status status);
 
-    List<Booking> findByUserIdAndStatusOrderByStartDesc(Long userId, Status status);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id IN :ids AND b.status = :expected")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("expected") Status expected,
+                     @Param("status") Status status);
 
-    List<Booking> findByUserIdAndEndBeforeOrderByStartDesc(Long userId, LocalDateTime now);
+    @Query(BOOKER_BOOKINGS + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingView> findPageByBooker(@Param("userId") Long userId,
+                                       @Param("afterStart") LocalDateTime afterStart,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
 
-    List<Booking> findByUserIdAndStartAfterOrderByStartDesc(Long userId, LocalDateTime now);
+    @Query(BOOKER_BOOKINGS + "AND b.status = :status " + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingView> findPageByBookerAndStatus(@Param("userId") Long userId,
+                                                @Param("status") Status status,
+                                                @Param("afterStart") LocalDateTime afterStart,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
 
-    List<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(Long ownerId, State state);
+    @Query(BOOKER_BOOKINGS + "AND b.end < :now " + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingView> findPastPageByBooker(@Param("userId") Long userId,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("afterStart") LocalDateTime afterStart,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
 
-    List<Booking> findAllByItemOwnerIdOrderByStartDesc(Long ownerId);
+    @Query(BOOKER_BOOKINGS + "AND b.start > :now " + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingView> findFuturePageByBooker(@Param("userId") Long userId,
+                                             @Param("now") LocalDateTime now,
+                                             @Param("afterStart") LocalDateTime afterStart,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
 
-    List<Booking> findAllByItemIdAndEndBeforeAndStatusOrderByEndDesc(Long itemId, LocalDateTime now, Status status);
+    @Query(BOOKER_BOOKINGS + "AND b.start <= :now AND b.end >= :now " + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingView> findCurrentPageByBooker(@Param("userId") Long userId,
+                                              @Param("now") LocalDateTime now,
+                                              @Param("afterStart") LocalDateTime afterStart,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
 
-    List<Booking> findAllByItemIdAndStartAfterOrderByStartAsc(Long itemId, LocalDateTime now);
+    @Query(OWNER_BOOKINGS + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingView> findPageByOwner(@Param("ownerId") Long ownerId,
+                                      @Param("afterStart") LocalDateTime afterStart,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
 
-    List<Booking> findByItemIdAndEndBeforeOrderByEndDesc(Long itemId, LocalDateTime now);
+    @Query(OWNER_BOOKINGS + "AND b.status = :status " + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingView> findPageByOwnerAndStatus(@Param("ownerId") Long ownerId,
+                                               @Param("status") Status status,
+                                               @Param("afterStart") LocalDateTime afterStart,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    @Query(OWNER_BOOKINGS + "AND b.end < :now " + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingView> findPastPageByOwner(@Param("ownerId") Long ownerId,
+                                          @Param("now") LocalDateTime now,
+                                          @Param("afterStart") LocalDateTime afterStart,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    @Query(OWNER_BOOKINGS + "AND b.start > :now " + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingView> findFuturePageByOwner(@Param("ownerId") Long ownerId,
+                                            @Param("now") LocalDateTime now,
+                                            @Param("afterStart") LocalDateTime afterStart,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+
+    @Query(OWNER_BOOKINGS + "AND b.start <= :now AND b.end >= :now " + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingView> findCurrentPageByOwner(@Param("ownerId") Long ownerId,
+                                             @Param("now") LocalDateTime now,
+                                             @Param("afterStart") LocalDateTime afterStart,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    List<Booking> findAllByItemIdAndStatusIn(Long itemId, List<Status> statuses);
+
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(Long itemId, List<Status> statuses,
+                                                               LocalDateTime end, LocalDateTime start);
+
+    @Query("SELECT DISTINCT b.item.id FROM Booking b WHERE b.user.id = :bookerId AND b.status IN :statuses")
+    List<Long> findItemIdsByBookerIdAndStatusIn(@Param("bookerId") Long bookerId,
+                                                @Param("statuses") List<Status> statuses);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartBeforeOrderByStartDescIdDesc(Long itemId, Status status,
+                                                                                     LocalDateTime now);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartAfterOrderByStartAscIdAsc(Long itemId, Status status,
+                                                                                  LocalDateTime now);
 
     List<Booking> findByItemIdAndUserIdAndStatusAndEndBefore(Long itemId, Long bookerId, Status status,
                                                              LocalDateTime endBefore);
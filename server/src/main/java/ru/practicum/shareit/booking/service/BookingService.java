@@ -1,9 +1,12 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
 import ru.practicum.shareit.booking.model.State;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BookingService {
@@ -11,9 +14,17 @@ public interface BookingService {
 
     BookingRespDto approveBooking(Long bookingId, Long userId, Boolean approved);
 
+    /**
+     * Подтверждает или отклоняет несколько бронирований владельца за один запрос.
+     * Результат возвращается для каждого бронирования в порядке решений.
+     */
+    List<BookingDecisionResultDto> approveBookings(Long userId, List<BookingDecisionDto> decisions);
+
     BookingRespDto getBookingById(Long bookingId, Long userId);
 
-    List<BookingRespDto> getAllBookingsByUser(Long userId, State state);
+    List<BookingRespDto> getAllBookingsByUser(Long userId, State state, LocalDateTime afterStart, Long afterId,
+                                              Integer size);
 
-    List<BookingRespDto> getAllBookingsByItems(Long userId, State state);
+    List<BookingRespDto> getAllBookingsByItems(Long userId, State state, LocalDateTime afterStart, Long afterId,
+                                               Integer size);
 }
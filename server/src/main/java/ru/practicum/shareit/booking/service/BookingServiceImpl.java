@@ -2,74 +2,163 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repo.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.item.summary.ItemSummaryTracker;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repo.UserRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final String OVERLAP_CONSTRAINT = "bookings_approved_no_overlap";
+    // нарушение внешнего ключа: 23503 в PostgreSQL, 23506 в H2
+    private static final Set<String> FOREIGN_KEY_STATES = Set.of("23503", "23506");
+    private static final String OVERLAP_ERROR = "Вещь уже забронирована на это время";
+    private static final Cursor FIRST_PAGE = new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRepository itemRepository;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemSummaryTracker itemSummaryTracker;
+    @Value("${shareit.bookings.max-page-size:100}")
+    private int maxPageSize;
 
     @Transactional
     @Override
     public BookingRespDto createBooking(BookingDto bookingDto, Long userId) {
         log.info("Создание бронирования - {} вещи пользователем с id - {}", bookingDto, userId);
-        User user = userRepository.findById(userId).orElseThrow(()
+        userCache.findById(userId).orElseThrow(()
                 -> new NotFoundException("Пользователь не найден"));
+        User user = userRepository.getReferenceById(userId);
         Item item = itemRepository.findById(bookingDto.itemId()).orElseThrow(()
                 -> new NotFoundException("Вещь не найдена"));
         if (!item.getAvailable()) {
             throw new ValidationException("Вещь не доступна для бронирования");
         }
-        Booking booking = bookingRepository.save(BookingMapper.toBooking(bookingDto, user, item));
+        if (bookingDto.start() == null || bookingDto.end() == null || !bookingDto.start().isBefore(bookingDto.end())) {
+            throw new ValidationException("Дата окончания бронирования должна быть позже даты начала");
+        }
+        Booking booking = itemAvailabilityIndex.reserve(item.getId(), bookingDto.start(), bookingDto.end(),
+                () -> saveBooking(BookingMapper.toBooking(bookingDto, user, item)));
         return BookingMapper.toDto(booking);
     }
 
+    @Transactional
     @Override
     public BookingRespDto approveBooking(Long bookingId, Long userId, Boolean approved) {
         log.info("Подтверждение/отклонение бронирования с id - {} пользователем с id - {}", bookingId, userId);
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        if (approved) {
+            itemRepository.findForUpdateByBookingId(bookingId);
+        }
+        int updated = withOverlapCheck(() -> bookingRepository.transition(bookingId, userId, Status.WAITING, status));
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(()
                 -> new NotFoundException("Бронирование не найдено"));
-        Long itemUserId = booking.getItem().getOwner().getId();
-        if (!userId.equals(itemUserId)) {
-            throw new ValidationException("Пользователь не является владельцем вещи");
-        }
-        if (!booking.getStatus().equals(Status.WAITING)) {
-            throw new ValidationException("Бронирование уже подтверждено или отклонено");
+        if (updated == 0) {
+            String error = decisionError(booking, userId);
+            if (error == null) {
+                throw new ConflictException("Бронирование изменено другим запросом, повторите попытку");
+            }
+            throw new ValidationException(error);
         }
         if (approved) {
-            booking.setStatus(Status.APPROVED);
+            itemSummaryTracker.onApproved(booking, LocalDateTime.now());
         } else {
-            booking.setStatus(Status.REJECTED);
+            itemAvailabilityIndex.release(booking.getItem().getId(), booking.getId());
+        }
+        return BookingMapper.toDto(booking);
+    }
+
+    @Transactional
+    @Override
+    public List<BookingDecisionResultDto> approveBookings(Long userId, List<BookingDecisionDto> decisions) {
+        log.info("Пакетное подтверждение/отклонение {} бронирований пользователем с id - {}", decisions.size(), userId);
+        Map<Long, Long> occurrences = decisions.stream()
+                .filter(Objects::nonNull)
+                .map(BookingDecisionDto::bookingId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(bookingId -> bookingId, Collectors.counting()));
+        Map<Long, Booking> bookings = occurrences.isEmpty()
+                ? Map.of()
+                : bookingRepository.findAllByIdIn(occurrences.keySet()).stream()
+                .collect(Collectors.toMap(Booking::getId, booking -> booking));
+        Map<Long, String> errors = new HashMap<>();
+        List<Booking> approved = new ArrayList<>();
+        List<Booking> rejected = new ArrayList<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (decision == null || decision.bookingId() == null || decision.approved() == null) {
+                continue;
+            }
+            Long bookingId = decision.bookingId();
+            String error = occurrences.get(bookingId) > 1
+                    ? "Повторное решение по бронированию"
+                    : decisionError(bookings.get(bookingId), userId);
+            if (error != null) {
+                errors.put(bookingId, error);
+            } else if (decision.approved()) {
+                approved.add(bookings.get(bookingId));
+            } else {
+                rejected.add(bookings.get(bookingId));
+            }
         }
-        Booking savedBooking = bookingRepository.save(booking);
-        return BookingMapper.toDto(savedBooking);
+        checkOverlaps(approved, errors);
+        applyStatus(approved, Status.APPROVED, errors);
+        applyStatus(rejected, Status.REJECTED, errors);
+        approved.removeIf(booking -> errors.containsKey(booking.getId()));
+        rejected.removeIf(booking -> errors.containsKey(booking.getId()));
+        updateIndexesAfterCommit(approved, rejected, LocalDateTime.now());
+        return decisions.stream()
+                .map(decision -> {
+                    if (decision == null || decision.bookingId() == null || decision.approved() == null) {
+                        return BookingDecisionResultDto.failed(decision == null ? null : decision.bookingId(),
+                                "Не указано бронирование или решение");
+                    }
+                    String error = errors.get(decision.bookingId());
+                    return error != null
+                            ? BookingDecisionResultDto.failed(decision.bookingId(), error)
+                            : BookingDecisionResultDto.applied(decision.bookingId(),
+                            decision.approved() ? Status.APPROVED : Status.REJECTED);
+                })
+                .toList();
     }
 
     @Override
     public BookingRespDto getBookingById(Long bookingId, Long userId) {
         log.info("Получение бронирования с id - {} пользователем с id - {}", bookingId, userId);
-        User user = userRepository.findById(userId).orElseThrow(()
+        userCache.findById(userId).orElseThrow(()
                 -> new NotFoundException("Пользователь с id " + userId + " не найден"));
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(()
                 -> new NotFoundException("Бронирование не найдено"));
@@ -77,18 +166,23 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingRespDto> getAllBookingsByUser(Long userId, State state) {
+    public List<BookingRespDto> getAllBookingsByUser(Long userId, State state, LocalDateTime afterStart, Long afterId,
+                                                     Integer size) {
         log.info("Получение всех бронирований пользователя с id - {}", userId);
         LocalDateTime now = LocalDateTime.now();
-        userRepository.findById(userId).orElseThrow(()
+        userCache.findById(userId).orElseThrow(()
                 -> new NotFoundException("Пользователь с id " + userId + " не найден"));
-        List<Booking> bookings = switch (state) {
-            case PAST -> bookingRepository.findByUserIdAndEndBeforeOrderByStartDesc(userId, now);
-            case FUTURE -> bookingRepository.findByUserIdAndStartAfterOrderByStartDesc(userId, now);
-            case WAITING -> bookingRepository.findByUserIdAndStatusOrderByStartDesc(userId, Status.WAITING);
-            case REJECTED -> bookingRepository.findByUserIdAndStatusOrderByStartDesc(userId, Status.REJECTED);
-            case CURRENT -> bookingRepository.findCurrentBookings(userId, now);
-            default -> bookingRepository.findByUserIdOrderByStartDesc(userId);
+        Cursor cursor = cursor(afterStart, afterId);
+        Pageable page = page(size);
+        List<BookingView> bookings = switch (state) {
+            case PAST -> bookingRepository.findPastPageByBooker(userId, now, cursor.start(), cursor.id(), page);
+            case FUTURE -> bookingRepository.findFuturePageByBooker(userId, now, cursor.start(), cursor.id(), page);
+            case WAITING -> bookingRepository.findPageByBookerAndStatus(userId, Status.WAITING, cursor.start(),
+                    cursor.id(), page);
+            case REJECTED -> bookingRepository.findPageByBookerAndStatus(userId, Status.REJECTED, cursor.start(),
+                    cursor.id(), page);
+            case CURRENT -> bookingRepository.findCurrentPageByBooker(userId, now, cursor.start(), cursor.id(), page);
+            default -> bookingRepository.findPageByBooker(userId, cursor.start(), cursor.id(), page);
         };
         return bookings.stream()
                 .map(BookingMapper::toDto)
@@ -96,17 +190,151 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingRespDto> getAllBookingsByItems(Long userId, State state) {
+    public List<BookingRespDto> getAllBookingsByItems(Long userId, State state, LocalDateTime afterStart, Long afterId,
+                                                      Integer size) {
         log.info("Получение всех бронирований всех вещей пользователя с id - {}", userId);
-        userRepository.findById(userId).orElseThrow(()
+        LocalDateTime now = LocalDateTime.now();
+        userCache.findById(userId).orElseThrow(()
                 -> new NotFoundException("Пользователь с id " + userId + " не найден"));
-        List<Booking> bookings = switch (state) {
-            case PAST, REJECTED, FUTURE, WAITING, CURRENT ->
-                    bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(userId, state);
-            default -> bookingRepository.findAllByItemOwnerIdOrderByStartDesc(userId);
+        Cursor cursor = cursor(afterStart, afterId);
+        Pageable page = page(size);
+        List<BookingView> bookings = switch (state) {
+            case PAST -> bookingRepository.findPastPageByOwner(userId, now, cursor.start(), cursor.id(), page);
+            case FUTURE -> bookingRepository.findFuturePageByOwner(userId, now, cursor.start(), cursor.id(), page);
+            case WAITING -> bookingRepository.findPageByOwnerAndStatus(userId, Status.WAITING, cursor.start(),
+                    cursor.id(), page);
+            case REJECTED -> bookingRepository.findPageByOwnerAndStatus(userId, Status.REJECTED, cursor.start(),
+                    cursor.id(), page);
+            case CURRENT -> bookingRepository.findCurrentPageByOwner(userId, now, cursor.start(), cursor.id(), page);
+            default -> bookingRepository.findPageByOwner(userId, cursor.start(), cursor.id(), page);
         };
         return bookings.stream()
                 .map(BookingMapper::toDto)
                 .collect(Collectors.toList());
     }
+
+    private Cursor cursor(LocalDateTime afterStart, Long afterId) {
+        if (afterStart == null && afterId == null) {
+            return FIRST_PAGE;
+        }
+        if (afterStart == null || afterId == null) {
+            throw new ValidationException("Курсор страницы задаётся парой afterStart и afterId");
+        }
+        return new Cursor(afterStart, afterId);
+    }
+
+    private Pageable page(Integer size) {
+        if (size != null && size <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
+        return PageRequest.of(0, size == null ? maxPageSize : Math.min(size, maxPageSize));
+    }
+
+    private Booking saveBooking(Booking booking) {
+        try {
+            return withOverlapCheck(() -> bookingRepository.saveAndFlush(booking));
+        } catch (DataIntegrityViolationException e) {
+            // пользователь или вещь удалены параллельно, уже после проверки
+            if (e.getMostSpecificCause() instanceof SQLException sqlException
+                    && FOREIGN_KEY_STATES.contains(sqlException.getSQLState())) {
+                throw new NotFoundException("Пользователь или вещь не найдены");
+            }
+            throw e;
+        }
+    }
+
+    private <T> T withOverlapCheck(Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (DataIntegrityViolationException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            if (message != null && message.contains(OVERLAP_CONSTRAINT)) {
+                throw new ConflictException(OVERLAP_ERROR);
+            }
+            throw e;
+        }
+    }
+
+    private static String decisionError(Booking booking, Long userId) {
+        if (booking == null) {
+            return "Бронирование не найдено";
+        }
+        if (!userId.equals(booking.getItem().getOwner().getId())) {
+            return "Пользователь не является владельцем вещи";
+        }
+        if (!booking.getStatus().equals(Status.WAITING)) {
+            return "Бронирование уже подтверждено или отклонено";
+        }
+        return null;
+    }
+
+    // вещи блокируются, поэтому подтверждения по одной вещи идут по очереди и пересечения находятся до UPDATE,
+    // а ограничение bookings_approved_no_overlap в базе остаётся последней защитой
+    private void checkOverlaps(List<Booking> approved, Map<Long, String> errors) {
+        if (approved.isEmpty()) {
+            return;
+        }
+        itemRepository.findAllForUpdate(approved.stream().map(booking -> booking.getItem().getId()).toList());
+        Map<Long, List<Booking>> acceptedByItem = new HashMap<>();
+        for (Booking booking : approved) {
+            Long itemId = booking.getItem().getId();
+            List<Booking> accepted = acceptedByItem.computeIfAbsent(itemId, id -> new ArrayList<>());
+            boolean overlaps = accepted.stream().anyMatch(other -> other.getStart().isBefore(booking.getEnd())
+                    && other.getEnd().isAfter(booking.getStart()))
+                    || bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(itemId,
+                    List.of(Status.APPROVED), booking.getEnd(), booking.getStart());
+            if (overlaps) {
+                errors.put(booking.getId(), OVERLAP_ERROR);
+            } else {
+                accepted.add(booking);
+            }
+        }
+    }
+
+    private void applyStatus(List<Booking> bookings, Status status, Map<Long, String> errors) {
+        List<Booking> pending = bookings.stream()
+                .filter(booking -> !errors.containsKey(booking.getId()))
+                .toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> ids = pending.stream().map(Booking::getId).toList();
+        int updated = withOverlapCheck(() -> bookingRepository.updateStatus(ids, Status.WAITING, status));
+        if (updated == ids.size()) {
+            return;
+        }
+        // часть бронирований изменена другим запросом после чтения: своё изменение узнаётся по версии
+        Map<Long, Booking> current = bookingRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, booking -> booking));
+        for (Booking booking : pending) {
+            Booking actual = current.get(booking.getId());
+            if (actual == null || actual.getStatus() != status
+                    || actual.getVersion() != booking.getVersion() + 1) {
+                errors.put(booking.getId(), "Бронирование изменено другим запросом");
+            }
+        }
+    }
+
+    // после UPDATE бронирования отсоединены от контекста и хранят прежний статус,
+    // поэтому индекс занятости и сводки вещей обновляются после коммита по id
+    private void updateIndexesAfterCommit(List<Booking> approved, List<Booking> rejected, LocalDateTime now) {
+        if (approved.isEmpty() && rejected.isEmpty()) {
+            return;
+        }
+        List<Long> approvedIds = approved.stream().map(Booking::getId).toList();
+        Map<Long, Long> rejectedItemIds = rejected.stream()
+                .collect(Collectors.toMap(Booking::getId, booking -> booking.getItem().getId()));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rejectedItemIds.forEach((bookingId, itemId) -> itemAvailabilityIndex.release(itemId, bookingId));
+                if (!approvedIds.isEmpty()) {
+                    itemSummaryTracker.onApprovedAll(approvedIds, now);
+                }
+            }
+        });
+    }
+
+    private record Cursor(LocalDateTime start, Long id) {
+    }
 }
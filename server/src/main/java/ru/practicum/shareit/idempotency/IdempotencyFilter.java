@@ -0,0 +1,217 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.practicum.shareit.exception.ErrorResponse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Повтор POST /bookings, /items и /requests с тем же заголовком Idempotency-Key возвращает
+ * сохранённый ответ первого запроса, не создавая объект заново. Ключ действует в пределах пользователя
+ * и пути, сохраняются только успешные ответы. Запрос без заголовка обрабатывается как обычно.
+ * Вместе с ответом хранится хэш тела запроса: повтор ключа с другим телом отклоняется с 422,
+ * а не получает ответ на чужой запрос. Тело держится в памяти, поэтому его размер ограничен:
+ * запрос с телом больше shareit.idempotency.max-body-size отклоняется с 413.
+ */
+@Slf4j
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final Set<String> IDEMPOTENT_PATHS = Set.of("/bookings", "/items", "/requests");
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, StoredResponse> responses;
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+    private final int maxBodySize;
+
+    public IdempotencyFilter(ObjectMapper objectMapper,
+                             @Value("${shareit.idempotency.max-size:10000}") long maxSize,
+                             @Value("${shareit.idempotency.ttl:PT24H}") Duration ttl,
+                             @Value("${shareit.idempotency.max-body-size:1MB}") DataSize maxBodySize) {
+        this.objectMapper = objectMapper;
+        this.maxBodySize = Math.toIntExact(maxBodySize.toBytes());
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_HEADER) == null
+                || !IDEMPOTENT_PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(USER_HEADER) + ":" + request.getRequestURI() + ":"
+                + request.getHeader(IDEMPOTENCY_HEADER);
+        byte[] body = request.getContentLengthLong() > maxBodySize
+                ? null
+                : request.getInputStream().readNBytes(maxBodySize + 1);
+        if (body == null || body.length > maxBodySize) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Тело запроса больше " + maxBodySize + " байт", "Введены неверные данные");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        byte[] bodyHash = sha256(body);
+        StoredResponse stored = responses.getIfPresent(key);
+        if (stored != null) {
+            if (!Arrays.equals(stored.bodyHash(), bodyHash)) {
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Ключ идемпотентности уже использован для запроса с другим телом",
+                        "Введены неверные данные");
+                return;
+            }
+            log.info("Повтор запроса {} {} с ключом идемпотентности, возвращён сохранённый ответ",
+                    request.getMethod(), request.getRequestURI());
+            replay(stored, response);
+            return;
+        }
+        if (!inProgress.add(key)) {
+            reject(response, HttpStatus.CONFLICT, "Запрос с этим ключом идемпотентности ещё выполняется",
+                    "Конфликт с текущим состоянием");
+            return;
+        }
+        try {
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            chain.doFilter(cachedRequest, wrapper);
+            if (HttpStatus.valueOf(wrapper.getStatus()).is2xxSuccessful()) {
+                responses.put(key, new StoredResponse(bodyHash, wrapper.getStatus(), wrapper.getContentType(),
+                        wrapper.getContentAsByteArray()));
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            inProgress.remove(key);
+        }
+    }
+
+    private static void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message, String description)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message, description));
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StoredResponse(byte[] bodyHash, int status, String contentType, byte[] body) {
+    }
+
+    /**
+     * Запрос с телом, прочитанным заранее для подсчёта хэша, которое контроллер может прочитать ещё раз.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // тело уже в памяти, поэтому неблокирующее чтение сразу получает его целиком
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -19,6 +21,12 @@ public class ItemController {
         return itemService.createItem(userId, itemDto);
     }
 
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public List<ItemImportResultDto> importItems(@RequestHeader(USER_HEADER) Long userId, InputStream items) {
+        return itemService.importItems(userId, items);
+    }
+
     @GetMapping("/{itemId}")
     public ItemDto getItemById(@PathVariable Long itemId,
                                @RequestHeader(USER_HEADER) Long userId) {
@@ -31,8 +39,20 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> getItemByText(@RequestParam("text") String text) {
-        return itemService.getItemByText(text);
+    public List<ItemDto> getItemByText(@RequestParam("text") String text,
+                                       @RequestParam(required = false) Long after,
+                                       @RequestParam(required = false) Integer size) {
+        return itemService.getItemByText(text, after, size);
+    }
+
+    @GetMapping("/search/fuzzy")
+    public List<ItemDto> getSimilarItems(@RequestParam("text") String text) {
+        return itemService.getSimilarItems(text);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> getNameSuggestions(@RequestParam("prefix") String prefix) {
+        return itemService.getNameSuggestions(prefix);
     }
 
     @PatchMapping("/{itemId}")
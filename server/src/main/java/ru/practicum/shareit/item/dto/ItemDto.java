@@ -1,7 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
 import ru.practicum.shareit.booking.dto.BookingRespDto;
-import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
 
@@ -10,7 +9,7 @@ public record ItemDto(
         String name,
         String description,
         Boolean available,
-        User owner,
+        OwnerDto owner,
         Long requestId,
         BookingRespDto lastBooking,
         BookingRespDto nextBooking,
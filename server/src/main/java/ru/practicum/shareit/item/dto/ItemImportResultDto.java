@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.dto;
+
+public record ItemImportResultDto(
+        int row,
+        Long id,
+        String error
+) {
+    public static ItemImportResultDto created(int row, Long id) {
+        return new ItemImportResultDto(row, id, null);
+    }
+
+    public static ItemImportResultDto failed(int row, String error) {
+        return new ItemImportResultDto(row, null, error);
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.dto;
+
+public record ItemView(
+        Long id,
+        String name,
+        String description,
+        Boolean available,
+        Long ownerId,
+        String ownerName,
+        Long requestId
+) {
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.dto;
+
+public record OwnerDto(
+        Long id,
+        String name
+) {
+}
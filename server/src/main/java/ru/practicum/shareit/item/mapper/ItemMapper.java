@@ -4,7 +4,11 @@ import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.dto.OwnerDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserView;
+import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
 
@@ -16,17 +20,38 @@ public class ItemMapper {
         item.setName(itemDto.name());
         item.setDescription(itemDto.description());
         item.setAvailable(itemDto.available());
-        item.setOwner(itemDto.owner());
         return item;
     }
 
+    public static ItemDto toDto(ItemView view) {
+        return new ItemDto(
+                view.id(),
+                view.name(),
+                view.description(),
+                view.available(),
+                new OwnerDto(view.ownerId(), view.ownerName()),
+                view.requestId(),
+                null,
+                null,
+                null
+        );
+    }
+
+    public static OwnerDto toOwnerDto(User owner) {
+        return new OwnerDto(owner.getId(), owner.getName());
+    }
+
+    public static OwnerDto toOwnerDto(UserView owner) {
+        return new OwnerDto(owner.id(), owner.name());
+    }
+
     public static ItemDto toDto(Item item) {
         return new ItemDto(
                 item.getId(),
                 item.getName(),
                 item.getDescription(),
                 item.getAvailable(),
-                item.getOwner(),
+                toOwnerDto(item.getOwner()),
                 null,
                 null,
                 null,
@@ -40,7 +65,7 @@ public class ItemMapper {
                 item.getName(),
                 item.getDescription(),
                 item.getAvailable(),
-                item.getOwner(),
+                toOwnerDto(item.getOwner()),
                 requestId,
                 null,
                 null,
@@ -56,7 +81,7 @@ public class ItemMapper {
                 item.getName(),
                 item.getDescription(),
                 item.getAvailable(),
-                item.getOwner(),
+                toOwnerDto(item.getOwner()),
                 null,
                 lastBooking,
                 nextBooking,
@@ -1,10 +1,13 @@
 package ru.practicum.shareit.item.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -12,11 +15,21 @@ import ru.practicum.shareit.user.model.User;
 @AllArgsConstructor
 @Getter
 @Setter
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
 @Table(name = "items")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
+@NamedEntityGraph(name = "Item.owner", attributeNodes = @NamedAttributeNode("owner"))
+@NamedEntityGraph(name = "Item.full",
+        attributeNodes = {
+                @NamedAttributeNode("owner"),
+                @NamedAttributeNode(value = "request", subgraph = "request")
+        },
+        subgraphs = @NamedSubgraph(name = "request", attributeNodes = @NamedAttributeNode("requester")))
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     Long id;
     @Column(nullable = false)
     String name;
@@ -24,10 +37,10 @@ public class Item {
     String description;
     @Column(nullable = false)
     Boolean available;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     User owner;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     ItemRequest request;
 }
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.model;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+public record ItemDetails(
+        Item item,
+        Booking lastBooking,
+        Booking nextBooking
+) {
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.repo;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,8 +11,11 @@ import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph("Comment.full")
     @Query("SELECT c FROM Comment c WHERE c.item.id IN :itemIds")
     List<Comment> findByItemIdIn(@Param("itemIds") List<Long> itemIds);
 
-    List<Comment> findAllByItemId(Long itemId);
+    @EntityGraph("Comment.withAuthor")
+    @Query("SELECT c FROM Comment c WHERE c.item.id = :itemId ORDER BY c.created")
+    List<Comment> findAllByItemId(@Param("itemId") Long itemId);
 }
@@ -1,16 +1,94 @@
 package ru.practicum.shareit.item.repo;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemDetails;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findByOwnerId(Long id);
+    String VIEWS = "SELECT new ru.practicum.shareit.item.dto.ItemView(" +
+            "i.id, i.name, i.description, i.available, o.id, o.name, r.id) " +
+            "FROM Item i JOIN i.owner o LEFT JOIN i.request r ";
 
-    List<Item> findByRequestId(Long requestId);
+    @Override
+    @EntityGraph("Item.owner")
+    Optional<Item> findById(Long id);
 
-    List<Item> findAllByRequestIdIn(List<Long> requestIds);
+    @EntityGraph("Item.full")
+    Optional<Item> findFullById(Long id);
+
+    @Query("SELECT i.id FROM Item i WHERE i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Блокирует вещи до конца транзакции, чтобы подтверждения бронирований одной вещи шли по очереди.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id")
+    List<Item> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = (SELECT b.item.id FROM Booking b WHERE b.id = :bookingId)")
+    Optional<Item> findForUpdateByBookingId(@Param("bookingId") Long bookingId);
+
+    @Query(VIEWS + "WHERE i.id IN :ids")
+    List<ItemView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(VIEWS + "WHERE r.id = :requestId")
+    List<ItemView> findViewsByRequestId(@Param("requestId") Long requestId);
+
+    @Query(VIEWS + "WHERE r.id IN :requestIds")
+    List<ItemView> findViewsByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    @Query("SELECT new ru.practicum.shareit.item.model.ItemDetails(i, lb, nb) FROM Item i " +
+            "LEFT JOIN Booking lb ON lb.id = (SELECT b.id FROM Booking b " +
+            "WHERE b.item.id = i.id AND b.status = :lastStatus AND b.end < :now " +
+            "ORDER BY b.end DESC, b.id DESC LIMIT 1) " +
+            "LEFT JOIN Booking nb ON nb.id = (SELECT b.id FROM Booking b " +
+            "WHERE b.item.id = i.id AND b.start > :now " +
+            "ORDER BY b.start ASC, b.id ASC LIMIT 1) " +
+            "WHERE i.id = :itemId")
+    Optional<ItemDetails> findDetailsById(@Param("itemId") Long itemId,
+                                          @Param("lastStatus") Status lastStatus,
+                                          @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT i.id FROM items i " +
+            "WHERE i.available = true " +
+            "AND i.search_vector @@ to_tsquery('simple', :query) " +
+            "AND i.id > :afterId " +
+            "ORDER BY i.id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Long> findAvailableIdsByTsQuery(@Param("query") String query,
+                                         @Param("afterId") long afterId,
+                                         @Param("limit") int limit);
+
+    /**
+     * Порог оператора % из pg_trgm до конца текущей транзакции, аналог SET LOCAL pg_trgm.similarity_threshold.
+     */
+    @Query(value = "SELECT set_config('pg_trgm.similarity_threshold', CAST(:threshold AS text), true)",
+            nativeQuery = true)
+    String setSimilarityThreshold(@Param("threshold") double threshold);
+
+    @Query(value = "SELECT i.id FROM items i " +
+            "WHERE i.available = true " +
+            "AND (i.name % :text OR i.description % :text) " +
+            "AND GREATEST(similarity(i.name, :text), similarity(i.description, :text)) >= :threshold " +
+            "ORDER BY GREATEST(similarity(i.name, :text), similarity(i.description, :text)) DESC, i.id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Long> findAvailableIdsBySimilarity(@Param("text") String text,
+                                            @Param("threshold") double threshold,
+                                            @Param("limit") int limit);
 }
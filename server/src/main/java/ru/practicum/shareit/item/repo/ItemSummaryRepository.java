@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.repo;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.model.ItemSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ItemSummaryRepository extends JpaRepository<ItemSummary, Long> {
+    @Query("SELECT s FROM ItemSummary s " +
+            "JOIN FETCH s.item i " +
+            "JOIN FETCH i.owner " +
+            "LEFT JOIN FETCH s.lastBooking " +
+            "LEFT JOIN FETCH s.nextBooking " +
+            "WHERE i.owner.id = :ownerId " +
+            "ORDER BY i.id")
+    List<ItemSummary> findAllByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ItemSummary s WHERE s.itemId = :itemId")
+    Optional<ItemSummary> findForUpdate(@Param("itemId") Long itemId);
+
+    @Query("SELECT s.itemId FROM ItemSummary s WHERE s.nextBooking.start <= :now")
+    List<Long> findItemIdsWithStartedNextBooking(@Param("now") LocalDateTime now);
+}
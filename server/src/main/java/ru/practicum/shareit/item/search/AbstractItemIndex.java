@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Основа для индексов вещей в памяти сервера: построение постранично при создании бина,
+ * то есть до того, как веб-сервер начнёт принимать запросы,
+ * обновление под блокировкой записи и пересинхронизация вещи с базой при откате транзакции,
+ * в которой индекс был изменён.
+ */
+@RequiredArgsConstructor
+public abstract class AbstractItemIndex implements InitializingBean {
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    protected final ItemRepository itemRepository;
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            Page<Item> page = itemRepository.findAll(PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id")));
+            page.forEach(this::put);
+            while (page.hasNext()) {
+                page = itemRepository.findAll(page.nextPageable());
+                page.forEach(this::put);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            evict(item.getId());
+            put(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        resyncOnRollback(item.getId());
+    }
+
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            evict(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        resyncOnRollback(itemId);
+    }
+
+    protected abstract void clear();
+
+    protected abstract void put(Item item);
+
+    protected abstract void evict(Long itemId);
+
+    private void resyncOnRollback(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    resync(itemId);
+                }
+            }
+        });
+    }
+
+    private void resync(Long itemId) {
+        Optional<Item> item = itemRepository.findById(itemId);
+        lock.writeLock().lock();
+        try {
+            evict(itemId);
+            item.ifPresent(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+
+import java.util.*;
+
+/**
+ * Инвертированный индекс по названию и описанию доступных вещей.
+ * Ключи индекса - все суффиксы токенов, поэтому поиск подстроки внутри слова
+ * сводится к диапазонному запросу по префиксу, а не к перебору всего каталога.
+ * Для коротких токенов, под которые попадает слишком широкий диапазон суффиксов, отдельно хранятся
+ * все подстроки длины до SHORT_TOKEN. Списки id отсортированы, страница собирается курсорами по ним.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryItemSearchEngine extends AbstractItemIndex implements ItemSearchEngine {
+    private static final int SHORT_TOKEN = 2;
+
+    private final NavigableMap<String, NavigableSet<Long>> suffixes = new TreeMap<>();
+    private final Map<String, NavigableSet<Long>> shortSubstrings = new HashMap<>();
+    private final NavigableMap<Long, Document> documents = new TreeMap<>();
+    private final TrigramIndex nameTrigrams = new TrigramIndex();
+    private final TrigramIndex descriptionTrigrams = new TrigramIndex();
+
+    public InMemoryItemSearchEngine(ItemRepository itemRepository) {
+        super(itemRepository);
+    }
+
+    @Override
+    public List<Long> search(String text, long afterId, int limit) {
+        String query = text.toLowerCase();
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        lock.readLock().lock();
+        try {
+            List<Long> result = new ArrayList<>();
+            if (tokens.isEmpty()) {
+                for (Map.Entry<Long, Document> entry : documents.tailMap(afterId, false).entrySet()) {
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                    if (entry.getValue().contains(query)) {
+                        result.add(entry.getKey());
+                    }
+                }
+                return result;
+            }
+            PostingsCursor candidates = PostingsCursor.intersection(tokens.stream()
+                    .map(token -> cursor(token, afterId))
+                    .toList());
+            while (candidates.current() != null && result.size() < limit) {
+                Long id = candidates.current();
+                if (documents.get(id).contains(query)) {
+                    result.add(id);
+                }
+                candidates.next();
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> searchSimilar(String text, double threshold, int limit) {
+        TopK topK = new TopK(limit);
+        lock.readLock().lock();
+        try {
+            Set<String> query = TrigramIndex.trigrams(text);
+            Map<Long, Integer> nameShared = nameTrigrams.sharedTrigrams(query);
+            Map<Long, Integer> descriptionShared = descriptionTrigrams.sharedTrigrams(query);
+            nameShared.forEach((id, shared) -> {
+                double score = nameTrigrams.similarity(query, id, shared);
+                Integer descriptionCount = descriptionShared.get(id);
+                if (descriptionCount != null) {
+                    score = Math.max(score, descriptionTrigrams.similarity(query, id, descriptionCount));
+                }
+                if (score >= threshold) {
+                    topK.offer(id, score);
+                }
+            });
+            descriptionShared.forEach((id, shared) -> {
+                if (nameShared.containsKey(id)) {
+                    return;
+                }
+                double score = descriptionTrigrams.similarity(query, id, shared);
+                if (score >= threshold) {
+                    topK.offer(id, score);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return topK.toList();
+    }
+
+    @Override
+    protected void clear() {
+        suffixes.clear();
+        shortSubstrings.clear();
+        documents.clear();
+        nameTrigrams.clear();
+        descriptionTrigrams.clear();
+    }
+
+    private PostingsCursor cursor(String token, long afterId) {
+        if (token.length() <= SHORT_TOKEN) {
+            return PostingsCursor.of(shortSubstrings.getOrDefault(token, Collections.emptyNavigableSet()), afterId);
+        }
+        return PostingsCursor.union(suffixes.subMap(token, true, token + Character.MAX_VALUE, false)
+                .values()
+                .stream()
+                .map(ids -> PostingsCursor.of(ids, afterId))
+                .toList());
+    }
+
+    @Override
+    protected void put(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        Document document = new Document(lower(item.getName()), lower(item.getDescription()));
+        documents.put(item.getId(), document);
+        nameTrigrams.add(item.getId(), document.name());
+        descriptionTrigrams.add(item.getId(), document.description());
+        for (String suffix : document.suffixes()) {
+            suffixes.computeIfAbsent(suffix, key -> new TreeSet<>()).add(item.getId());
+        }
+        for (String substring : document.shortSubstrings()) {
+            shortSubstrings.computeIfAbsent(substring, key -> new TreeSet<>()).add(item.getId());
+        }
+    }
+
+    @Override
+    protected void evict(Long itemId) {
+        Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        nameTrigrams.remove(itemId);
+        descriptionTrigrams.remove(itemId);
+        for (String suffix : document.suffixes()) {
+            removePosting(suffixes, suffix, itemId);
+        }
+        for (String substring : document.shortSubstrings()) {
+            removePosting(shortSubstrings, substring, itemId);
+        }
+    }
+
+    private static void removePosting(Map<String, NavigableSet<Long>> postings, String key, Long itemId) {
+        NavigableSet<Long> ids = postings.get(key);
+        if (ids != null) {
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase();
+    }
+
+    private record Document(String name, String description) {
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> suffixes() {
+            Set<String> result = new HashSet<>();
+            for (String token : SearchTokenizer.tokenize(name + " " + description)) {
+                for (int i = 0; i < token.length(); i++) {
+                    result.add(token.substring(i));
+                }
+            }
+            return result;
+        }
+
+        Set<String> shortSubstrings() {
+            Set<String> result = new HashSet<>();
+            for (String token : SearchTokenizer.tokenize(name + " " + description)) {
+                for (int i = 0; i < token.length(); i++) {
+                    for (int length = 1; length <= SHORT_TOKEN && i + length <= token.length(); length++) {
+                        result.add(token.substring(i, i + length));
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
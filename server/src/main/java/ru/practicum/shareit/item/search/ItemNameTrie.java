@@ -0,0 +1,141 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Префиксное дерево названий вещей. Потомки узла хранятся в отсортированных массивах,
+ * а каждый узел держит заранее посчитанный список из не более чем topSize лучших названий своего поддерева
+ * (чаще встречающиеся выше, при равенстве - по алфавиту), поэтому подсказка по префиксу стоит O(длины префикса).
+ * Класс не потокобезопасен, синхронизация остаётся на вызывающей стороне.
+ */
+public class ItemNameTrie {
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Comparator<Entry> RANK = Comparator.comparingInt(Entry::count).reversed()
+            .thenComparing(Entry::key);
+
+    private final int topSize;
+    private Node root = new Node();
+
+    public ItemNameTrie(int topSize) {
+        this.topSize = topSize;
+    }
+
+    public void add(String name) {
+        update(name, 1);
+    }
+
+    public void remove(String name) {
+        update(name, -1);
+    }
+
+    public void clear() {
+        root = new Node();
+    }
+
+    public List<String> suggest(String prefix) {
+        Node node = root;
+        String key = prefix.toLowerCase();
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return Arrays.stream(node.top)
+                .map(Entry::name)
+                .toList();
+    }
+
+    private void update(String name, int delta) {
+        String key = name.toLowerCase();
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = path[i].child(key.charAt(i));
+            if (child == null) {
+                if (delta < 0) {
+                    return;
+                }
+                child = path[i].addChild(key.charAt(i));
+            }
+            path[i + 1] = child;
+        }
+        Node terminal = path[key.length()];
+        terminal.count += delta;
+        if (terminal.count > 0) {
+            terminal.name = name;
+        } else {
+            terminal.count = 0;
+            terminal.name = null;
+        }
+        for (int i = key.length(); i >= 0; i--) {
+            Node node = path[i];
+            if (i > 0 && node.count == 0 && node.keys.length == 0) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+                continue;
+            }
+            recomputeTop(node, key.substring(0, i));
+        }
+    }
+
+    private void recomputeTop(Node node, String key) {
+        List<Entry> candidates = new ArrayList<>();
+        if (node.count > 0) {
+            candidates.add(new Entry(key, node.name, node.count));
+        }
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(RANK);
+        node.top = candidates.subList(0, Math.min(topSize, candidates.size())).toArray(NO_ENTRIES);
+    }
+
+    private record Entry(String key, String name, int count) {
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private Entry[] top = NO_ENTRIES;
+        private int count;
+        private String name;
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node addChild(char key) {
+            int index = -Arrays.binarySearch(keys, key) - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newKeys[index] = key;
+            newChildren[index] = new Node();
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[index];
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+    void index(Item item);
+
+    void remove(Long itemId);
+
+    /**
+     * Возвращает отсортированные по возрастанию id доступных вещей, в названии или описании которых
+     * встречается текст: не больше limit штук, начиная с первого id больше afterId.
+     */
+    List<Long> search(String text, long afterId, int limit);
+
+    /**
+     * Нечёткий поиск: id доступных вещей, похожих на текст по триграммам не меньше чем на threshold,
+     * отсортированные по убыванию похожести, не больше limit штук.
+     */
+    List<Long> searchSimilar(String text, double threshold, int limit);
+}
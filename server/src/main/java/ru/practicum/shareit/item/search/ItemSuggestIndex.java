@@ -0,0 +1,56 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Подсказки названий доступных вещей по префиксу, не обращаясь к базе.
+ */
+@Component
+public class ItemSuggestIndex extends AbstractItemIndex {
+    private final ItemNameTrie trie;
+    private final Map<Long, String> names = new HashMap<>();
+
+    public ItemSuggestIndex(ItemRepository itemRepository, @Value("${shareit.suggest.size:10}") int suggestSize) {
+        super(itemRepository);
+        this.trie = new ItemNameTrie(suggestSize);
+    }
+
+    public List<String> suggest(String prefix) {
+        lock.readLock().lock();
+        try {
+            return trie.suggest(prefix);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected void clear() {
+        trie.clear();
+        names.clear();
+    }
+
+    @Override
+    protected void put(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable()) || item.getName() == null) {
+            return;
+        }
+        names.put(item.getId(), item.getName());
+        trie.add(item.getName());
+    }
+
+    @Override
+    protected void evict(Long itemId) {
+        String name = names.remove(itemId);
+        if (name != null) {
+            trie.remove(name);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Полнотекстовый поиск средствами PostgreSQL по сгенерированной колонке items.search_vector,
+ * нечёткий - через триграммные GIN-индексы pg_trgm.
+ * Колонка пересчитывается самой базой, поэтому индексировать вещи вручную не нужно.
+ * В отличие от поиска в памяти совпадение ищется по началу слов, а не по любой подстроке.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres")
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public void index(Item item) {
+    }
+
+    @Override
+    public void remove(Long itemId) {
+    }
+
+    @Override
+    public List<Long> search(String text, long afterId, int limit) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String query = tokens.stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+        return itemRepository.findAvailableIdsByTsQuery(query, afterId, limit);
+    }
+
+    // оператор % фильтрует по порогу pg_trgm.similarity_threshold, поэтому он выставляется равным threshold
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> searchSimilar(String text, double threshold, int limit) {
+        itemRepository.setSimilarityThreshold(threshold);
+        return itemRepository.findAvailableIdsBySimilarity(text, threshold, limit);
+    }
+}
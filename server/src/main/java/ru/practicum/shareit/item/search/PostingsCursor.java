@@ -0,0 +1,134 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+
+/**
+ * Курсор по возрастающим id из списков вхождений индекса. Списки не копируются и не сортируются заново:
+ * следующий id ищется прямо в NavigableSet, поэтому страница стоит порядка limit шагов, а не размера выборки.
+ * Класс не потокобезопасен, синхронизация остаётся на вызывающей стороне.
+ */
+abstract class PostingsCursor {
+    private static final Comparator<PostingsCursor> BY_CURRENT = Comparator.comparing(PostingsCursor::current);
+
+    /**
+     * Текущий id или null, если курсор исчерпан.
+     */
+    abstract Long current();
+
+    /**
+     * Переходит к первому id не меньше target.
+     */
+    abstract void seek(long target);
+
+    void next() {
+        seek(current() + 1);
+    }
+
+    static PostingsCursor of(NavigableSet<Long> ids, long afterId) {
+        return new Leaf(ids, afterId);
+    }
+
+    static PostingsCursor union(List<PostingsCursor> cursors) {
+        return cursors.size() == 1 ? cursors.get(0) : new Union(cursors);
+    }
+
+    static PostingsCursor intersection(List<PostingsCursor> cursors) {
+        return cursors.size() == 1 ? cursors.get(0) : new Intersection(cursors);
+    }
+
+    private static final class Leaf extends PostingsCursor {
+        private final NavigableSet<Long> ids;
+        private Long current;
+
+        private Leaf(NavigableSet<Long> ids, long afterId) {
+            this.ids = ids;
+            this.current = ids.higher(afterId);
+        }
+
+        @Override
+        Long current() {
+            return current;
+        }
+
+        @Override
+        void seek(long target) {
+            if (current != null && current < target) {
+                current = ids.ceiling(target);
+            }
+        }
+    }
+
+    private static final class Union extends PostingsCursor {
+        private final PriorityQueue<PostingsCursor> heap = new PriorityQueue<>(BY_CURRENT);
+
+        private Union(List<PostingsCursor> cursors) {
+            cursors.stream()
+                    .filter(cursor -> cursor.current() != null)
+                    .forEach(heap::add);
+        }
+
+        @Override
+        Long current() {
+            return heap.isEmpty() ? null : heap.peek().current();
+        }
+
+        @Override
+        void seek(long target) {
+            while (!heap.isEmpty() && heap.peek().current() < target) {
+                PostingsCursor cursor = heap.poll();
+                cursor.seek(target);
+                if (cursor.current() != null) {
+                    heap.add(cursor);
+                }
+            }
+        }
+    }
+
+    private static final class Intersection extends PostingsCursor {
+        private final List<PostingsCursor> cursors;
+        private Long current;
+
+        private Intersection(List<PostingsCursor> cursors) {
+            this.cursors = cursors;
+            align();
+        }
+
+        @Override
+        Long current() {
+            return current;
+        }
+
+        @Override
+        void seek(long target) {
+            cursors.forEach(cursor -> cursor.seek(target));
+            align();
+        }
+
+        private void align() {
+            while (true) {
+                long max = Long.MIN_VALUE;
+                for (PostingsCursor cursor : cursors) {
+                    if (cursor.current() == null) {
+                        current = null;
+                        return;
+                    }
+                    max = Math.max(max, cursor.current());
+                }
+                boolean aligned = true;
+                for (PostingsCursor cursor : cursors) {
+                    if (cursor.current() < max) {
+                        cursor.seek(max);
+                        aligned = false;
+                    }
+                }
+                if (aligned) {
+                    current = max;
+                    return;
+                }
+            }
+        }
+    }
+}
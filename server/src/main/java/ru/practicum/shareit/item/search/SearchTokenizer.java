@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.List;
+
+@UtilityClass
+public class SearchTokenizer {
+    public static List<String> tokenize(String text) {
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{Nd}]+"))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Ограниченная куча для отбора k лучших id по убыванию оценки.
+ * В памяти одновременно держится не больше k элементов, сколько бы кандидатов ни было.
+ */
+public class TopK {
+    private static final Comparator<Scored> ORDER = Comparator.comparingDouble(Scored::score)
+            .thenComparing(Scored::id, Comparator.reverseOrder());
+
+    private final int k;
+    private final PriorityQueue<Scored> heap;
+
+    public TopK(int k) {
+        this.k = k;
+        this.heap = new PriorityQueue<>(Math.max(k, 1), ORDER);
+    }
+
+    public void offer(Long id, double score) {
+        if (k <= 0) {
+            return;
+        }
+        Scored scored = new Scored(id, score);
+        if (heap.size() < k) {
+            heap.add(scored);
+        } else if (ORDER.compare(scored, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(scored);
+        }
+    }
+
+    public List<Long> toList() {
+        List<Scored> sorted = new ArrayList<>(heap);
+        sorted.sort(ORDER.reversed());
+        return sorted.stream()
+                .map(Scored::id)
+                .toList();
+    }
+
+    private record Scored(Long id, double score) {
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.*;
+
+/**
+ * Индекс триграмм в духе pg_trgm: каждое слово дополняется двумя пробелами в начале и одним в конце,
+ * похожесть - отношение числа общих триграмм к размеру их объединения.
+ * Класс не потокобезопасен, синхронизация остаётся на вызывающей стороне.
+ */
+public class TrigramIndex {
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> trigramsById = new HashMap<>();
+
+    public void add(Long id, String text) {
+        Set<String> trigrams = trigrams(text);
+        if (trigrams.isEmpty()) {
+            return;
+        }
+        trigramsById.put(id, trigrams);
+        for (String trigram : trigrams) {
+            postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    public void remove(Long id) {
+        Set<String> trigrams = trigramsById.remove(id);
+        if (trigrams == null) {
+            return;
+        }
+        for (String trigram : trigrams) {
+            Set<Long> ids = postings.get(trigram);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        trigramsById.clear();
+    }
+
+    /**
+     * Число общих с запросом триграмм для каждого документа, у которого есть хотя бы одна общая триграмма.
+     */
+    public Map<Long, Integer> sharedTrigrams(Set<String> query) {
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String trigram : query) {
+            for (Long id : postings.getOrDefault(trigram, Set.of())) {
+                shared.merge(id, 1, Integer::sum);
+            }
+        }
+        return shared;
+    }
+
+    public double similarity(Set<String> query, Long id, int shared) {
+        int union = query.size() + trigramsById.get(id).size() - shared;
+        return (double) shared / union;
+    }
+
+    public static Set<String> trigrams(String text) {
+        Set<String> result = new HashSet<>();
+        for (String token : SearchTokenizer.tokenize(text)) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+}
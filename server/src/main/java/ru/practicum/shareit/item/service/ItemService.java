@@ -2,16 +2,27 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 public interface ItemService {
     ItemDto createItem(Long userId, ItemDto itemDto);
 
+    /**
+     * Создаёт вещи из JSON-массива или NDJSON, читая тело потоково. Строки сохраняются частями,
+     * каждая часть - в своей транзакции; результат содержит id или ошибку для каждой строки.
+     */
+    List<ItemImportResultDto> importItems(Long userId, InputStream items);
+
     ItemDto getItemById(Long itemId, Long userId);
 
     List<ItemDto> getAllUserItems(Long userId);
 
-    List<ItemDto> getItemByText(String text);
+    List<ItemDto> getItemByText(String text, Long after, Integer size);
+
+    List<ItemDto> getSimilarItems(String text);
+
+    List<String> getNameSuggestions(String prefix);
 
     ItemDto updateItem(Long itemId, Long userId, ItemDto itemDto);
 
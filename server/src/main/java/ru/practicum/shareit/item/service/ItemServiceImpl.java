@@ -1,9 +1,17 @@
 package ru.practicum.shareit.item.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
@@ -16,13 +24,25 @@ import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemDetails;
+import ru.practicum.shareit.item.model.ItemSummary;
 import ru.practicum.shareit.item.repo.CommentRepository;
 import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.item.repo.ItemSummaryRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.item.summary.ItemSummaryTracker;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repo.ItemRequestRepository;
+import ru.practicum.shareit.request.suggest.RequestItemSuggester;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.dto.UserView;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repo.UserRepository;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -33,15 +53,33 @@ import java.util.stream.Collectors;
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSummaryRepository itemSummaryRepository;
+    private final ItemSummaryTracker itemSummaryTracker;
+    private final RequestItemSuggester requestItemSuggester;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    @Value("${shareit.search.max-page-size:100}")
+    private int maxPageSize;
+    @Value("${shareit.search.similarity-threshold:0.3}")
+    private double similarityThreshold;
+    @Value("${shareit.search.similar-limit:20}")
+    private int similarLimit;
+    @Value("${shareit.items.import.chunk-size:1000}")
+    private int importChunkSize;
 
     @Transactional
     @Override
     public ItemDto createItem(Long userId, ItemDto itemDto) {
         log.info("Создание вещи - {} пользователя с id - {}", itemDto, userId);
-        User owner = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userCache.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        User owner = userRepository.getReferenceById(userId);
         ItemRequest request = null;
         if (itemDto.requestId() != null) {
             request = itemRequestRepository.findById(itemDto.requestId())
@@ -51,30 +89,63 @@ public class ItemServiceImpl implements ItemService {
         item.setOwner(owner);
         item.setRequest(request);
         Item savedItem = itemRepository.save(item);
+        itemSummaryTracker.create(savedItem);
+        itemSearchEngine.index(savedItem);
+        itemSuggestIndex.index(savedItem);
+        requestItemSuggester.itemsChanged();
         return (request != null)
                 ? ItemMapper.toDto(savedItem, request.getId())
                 : ItemMapper.toDto(savedItem);
     }
 
+    @Override
+    public List<ItemImportResultDto> importItems(Long userId, InputStream items) {
+        log.info("Пакетное создание вещей пользователя с id - {}", userId);
+        userCache.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        List<ItemImportResultDto> results = new ArrayList<>();
+        Map<Long, Boolean> knownRequests = new HashMap<>();
+        Map<Integer, ItemDto> chunk = new LinkedHashMap<>();
+        int row = 0;
+        try (MappingIterator<ItemDto> rows = objectMapper.readerFor(ItemDto.class).readValues(items)) {
+            while (rows.hasNextValue()) {
+                ItemDto itemDto = rows.nextValue();
+                row++;
+                String error = validateImportRow(itemDto);
+                if (error != null) {
+                    results.add(ItemImportResultDto.failed(row, error));
+                    continue;
+                }
+                chunk.put(row, itemDto);
+                if (chunk.size() >= importChunkSize) {
+                    results.addAll(importChunk(userId, chunk, knownRequests));
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            results.add(ItemImportResultDto.failed(row + 1, "Некорректный JSON: " + e.getOriginalMessage()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        results.addAll(importChunk(userId, chunk, knownRequests));
+        requestItemSuggester.itemsChanged();
+        results.sort(Comparator.comparingInt(ItemImportResultDto::row));
+        return results;
+    }
+
     @Override
     public ItemDto getItemById(Long itemId, Long userId) {
         log.info("Получение вещи с id - {}", itemId);
-        Item item = itemRepository.findById(itemId)
+        ItemDetails details = itemRepository.findDetailsById(itemId, Status.APPROVED, LocalDateTime.now())
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
+        Item item = details.item();
         List<CommentResponseDto> comments = commentRepository.findAllByItemId(itemId).stream()
                 .map(CommentMapper::toDto)
                 .collect(Collectors.toList());
         BookingRespDto lastBooking = null;
         BookingRespDto nextBooking = null;
-        List<Booking> lastBookings = bookingRepository.findAllByItemIdAndEndBeforeAndStatusOrderByEndDesc(itemId,
-                LocalDateTime.now(), Status.APPROVED);
-        if (!lastBookings.isEmpty() && userId.equals(item.getOwner().getId())) {
-            lastBooking = BookingMapper.toDto(lastBookings.getFirst());
-        }
-        List<Booking> nextBookings = bookingRepository.findAllByItemIdAndStartAfterOrderByStartAsc(itemId,
-                LocalDateTime.now());
-        if (!nextBookings.isEmpty() && userId.equals(item.getOwner().getId())) {
-            nextBooking = BookingMapper.toDto(nextBookings.getFirst());
+        if (userId.equals(item.getOwner().getId())) {
+            lastBooking = details.lastBooking() != null ? BookingMapper.toDto(details.lastBooking()) : null;
+            nextBooking = details.nextBooking() != null ? BookingMapper.toDto(details.nextBooking()) : null;
         }
         return ItemMapper.toDto(item, lastBooking, nextBooking, comments);
     }
@@ -82,32 +153,27 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public List<ItemDto> getAllUserItems(Long userId) {
         log.info("Получение списка вещей пользователя с id - {}", userId);
-        User user = userRepository.findById(userId).orElseThrow(()
+        UserView owner = userCache.findById(userId).orElseThrow(()
                 -> new NotFoundException("Пользователь не найден"));
-        List<Item> items = itemRepository.findByOwnerId(userId);
-        List<Long> itemIds = items.stream().map(Item::getId).toList();
-        Map<Long, List<Booking>> bookingsByItem = bookingRepository.findByItemIdIn(itemIds)
-                .stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-        Map<Long, List<Comment>> commentsByItem = commentRepository.findByItemIdIn(itemIds)
+        List<ItemSummary> summaries = itemSummaryRepository.findAllByOwnerId(userId);
+        List<Long> commentedItemIds = summaries.stream()
+                .filter(summary -> summary.getCommentCount() > 0)
+                .map(ItemSummary::getItemId)
+                .toList();
+        Map<Long, List<Comment>> commentsByItem = commentedItemIds.isEmpty()
+                ? Map.of()
+                : commentRepository.findByItemIdIn(commentedItemIds)
                 .stream()
                 .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
-        LocalDateTime now = LocalDateTime.now();
-        return items.stream()
-                .map(item -> {
-                    List<Booking> itemBookings = bookingsByItem.getOrDefault(item.getId(), List.of());
-                    BookingRespDto lastBooking = itemBookings.stream()
-                            .filter(b -> b.getStart().isBefore(now) &&
-                                    b.getStatus() == Status.APPROVED)
-                            .max(Comparator.comparing(Booking::getStart))
-                            .map(BookingMapper::toDto)
-                            .orElse(null);
-                    BookingRespDto nextBooking = itemBookings.stream()
-                            .filter(b -> b.getStart().isAfter(now) &&
-                                    b.getStatus() == Status.APPROVED)
-                            .min(Comparator.comparing(Booking::getStart))
-                            .map(BookingMapper::toDto)
-                            .orElse(null);
+        return summaries.stream()
+                .map(summary -> {
+                    Item item = summary.getItem();
+                    BookingRespDto lastBooking = summary.getLastBooking() != null
+                            ? BookingMapper.toDto(summary.getLastBooking())
+                            : null;
+                    BookingRespDto nextBooking = summary.getNextBooking() != null
+                            ? BookingMapper.toDto(summary.getNextBooking())
+                            : null;
                     List<CommentResponseDto> comments = commentsByItem.getOrDefault(item.getId(), List.of())
                             .stream()
                             .map(CommentMapper::toDto)
@@ -118,7 +184,7 @@ public class ItemServiceImpl implements ItemService {
                             item.getName(),
                             item.getDescription(),
                             item.getAvailable(),
-                            user,
+                            ItemMapper.toOwnerDto(owner),
                             requestId,
                             lastBooking,
                             nextBooking,
@@ -129,22 +195,54 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<ItemDto> getItemByText(String text) {
+    public List<ItemDto> getItemByText(String text, Long after, Integer size) {
         log.info("Получение списка вещей содержащие текст - {} в названии или описании", text);
+        if (size != null && size <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
         if (text.isBlank()) {
             return Collections.emptyList();
         }
-        String editedText = text.toLowerCase();
-        return itemRepository.findAll().stream()
-                .filter(Item::getAvailable)
-                .filter(item ->
-                        (item.getName() != null && item.getName().toLowerCase().contains(editedText)) ||
-                                (item.getDescription() != null && item.getDescription().toLowerCase().contains(editedText))
-                )
+        int limit = size == null ? maxPageSize : Math.min(size, maxPageSize);
+        List<Long> itemIds = itemSearchEngine.search(text, after == null ? 0L : after, limit);
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return itemRepository.findViewsByIdIn(itemIds).stream()
+                .filter(ItemView::available)
+                .sorted(Comparator.comparing(ItemView::id))
                 .map(ItemMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<ItemDto> getSimilarItems(String text) {
+        log.info("Нечёткий поиск вещей, похожих на текст - {}", text);
+        if (text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<Long> itemIds = itemSearchEngine.searchSimilar(text, similarityThreshold, similarLimit);
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ItemView> itemsById = itemRepository.findViewsByIdIn(itemIds).stream()
+                .filter(ItemView::available)
+                .collect(Collectors.toMap(ItemView::id, item -> item));
+        return itemIds.stream()
+                .filter(itemsById::containsKey)
+                .map(itemsById::get)
+                .map(ItemMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> getNameSuggestions(String prefix) {
+        if (prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        return itemSuggestIndex.suggest(prefix);
+    }
+
     @Transactional
     @Override
     public ItemDto updateItem(Long itemId, Long userId, ItemDto itemDto) {
@@ -163,23 +261,32 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.available() != null) {
             item.setAvailable(itemDto.available());
         }
-        return ItemMapper.toDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemSearchEngine.index(savedItem);
+        itemSuggestIndex.index(savedItem);
+        requestItemSuggester.itemsChanged();
+        return ItemMapper.toDto(savedItem);
     }
 
     @Transactional
     @Override
     public void deleteItem(Long itemId) {
         log.info("Удаление вещи с id - {}", itemId);
+        itemSummaryRepository.deleteById(itemId);
         itemRepository.deleteById(itemId);
+        itemSearchEngine.remove(itemId);
+        itemSuggestIndex.remove(itemId);
+        requestItemSuggester.itemsChanged();
     }
 
     @Transactional
     @Override
     public CommentResponseDto addComment(Long itemId, Long userId, CommentDto commentDto) {
         log.info("Добавление отзыва к вещи с id - {}", itemId);
-        User user = userRepository.findById(userId).orElseThrow(()
+        userCache.findById(userId).orElseThrow(()
                 -> new NotFoundException("Пользователь не найден"));
-        Item item = itemRepository.findById(itemId).orElseThrow(()
+        User user = userRepository.getReferenceById(userId);
+        Item item = itemRepository.findFullById(itemId).orElseThrow(()
                 -> new NotFoundException("Вещь не найдена"));
         List<Booking> bookings = bookingRepository.findByItemIdAndUserIdAndStatusAndEndBefore(itemId, userId,
                 Status.APPROVED, LocalDateTime.now());
@@ -189,6 +296,84 @@ public class ItemServiceImpl implements ItemService {
         Comment comment = CommentMapper.toComment(commentDto, user, item);
         comment.setCreated(LocalDateTime.now());
         Comment savedComment = commentRepository.save(comment);
+        itemSummaryTracker.onComment(item);
         return CommentMapper.toDto(savedComment);
     }
+
+    private String validateImportRow(ItemDto itemDto) {
+        if (itemDto == null) {
+            return "Пустая строка";
+        }
+        if (itemDto.name() == null || itemDto.name().isBlank()) {
+            return "Название вещи не может быть пустым";
+        }
+        if (itemDto.description() == null || itemDto.description().isBlank()) {
+            return "Описание вещи не может быть пустым";
+        }
+        if (itemDto.available() == null) {
+            return "Не указана доступность вещи";
+        }
+        return null;
+    }
+
+    private List<ItemImportResultDto> importChunk(Long userId, Map<Integer, ItemDto> chunk,
+                                                  Map<Long, Boolean> knownRequests) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        List<Long> uncheckedRequestIds = chunk.values().stream()
+                .map(ItemDto::requestId)
+                .filter(requestId -> requestId != null && !knownRequests.containsKey(requestId))
+                .distinct()
+                .toList();
+        if (!uncheckedRequestIds.isEmpty()) {
+            Set<Long> existing = new HashSet<>(itemRequestRepository.findExistingIds(uncheckedRequestIds));
+            uncheckedRequestIds.forEach(requestId -> knownRequests.put(requestId, existing.contains(requestId)));
+        }
+        List<ItemImportResultDto> results = new ArrayList<>();
+        Map<Integer, ItemDto> valid = new LinkedHashMap<>();
+        chunk.forEach((row, itemDto) -> {
+            if (itemDto.requestId() != null && !knownRequests.get(itemDto.requestId())) {
+                results.add(ItemImportResultDto.failed(row, "Запрос не найден"));
+            } else {
+                valid.put(row, itemDto);
+            }
+        });
+        if (valid.isEmpty()) {
+            return results;
+        }
+        try {
+            results.addAll(transactionTemplate.execute(status -> saveImportChunk(userId, valid)));
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Не удалось сохранить {} вещей пользователя с id - {}", valid.size(), userId, e);
+            valid.keySet().forEach(row -> results.add(ItemImportResultDto.failed(row, "Не удалось сохранить вещь")));
+        }
+        return results;
+    }
+
+    private List<ItemImportResultDto> saveImportChunk(Long userId, Map<Integer, ItemDto> rows) {
+        User owner = userRepository.getReferenceById(userId);
+        List<Item> items = new ArrayList<>(rows.size());
+        for (ItemDto itemDto : rows.values()) {
+            Item item = ItemMapper.toItem(itemDto);
+            item.setId(null);
+            item.setOwner(owner);
+            if (itemDto.requestId() != null) {
+                item.setRequest(itemRequestRepository.getReferenceById(itemDto.requestId()));
+            }
+            items.add(item);
+        }
+        List<Item> savedItems = itemRepository.saveAll(items);
+        itemSummaryTracker.createAll(savedItems);
+        entityManager.flush();
+        entityManager.clear();
+        List<ItemImportResultDto> results = new ArrayList<>(rows.size());
+        Iterator<Integer> rowNumbers = rows.keySet().iterator();
+        for (Item item : savedItems) {
+            itemSearchEngine.index(item);
+            itemSuggestIndex.index(item);
+            results.add(ItemImportResultDto.created(rowNumbers.next(), item.getId()));
+        }
+        return results;
+    }
 }
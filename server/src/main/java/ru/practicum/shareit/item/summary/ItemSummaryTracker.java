@@ -0,0 +1,111 @@
+package ru.practicum.shareit.item.summary;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repo.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.item.repo.ItemSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Поддерживает таблицу item_summary: последнее и ближайшее подтверждённые бронирования вещи
+ * и число отзывов о ней. Строка меняется в той же транзакции, что и бронирование или отзыв,
+ * а бронирования, начало которых уже наступило, периодически переносятся из ближайших в последние.
+ * Бронирования, удалённые каскадом вместе с пользователем, пересчитываются после удаления.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSummaryTracker {
+    private final ItemSummaryRepository itemSummaryRepository;
+    private final BookingRepository bookingRepository;
+
+    public void create(Item item) {
+        itemSummaryRepository.save(new ItemSummary(null, item, null, null, 0));
+    }
+
+    public void createAll(List<Item> items) {
+        itemSummaryRepository.saveAll(items.stream()
+                .map(item -> new ItemSummary(null, item, null, null, 0))
+                .toList());
+    }
+
+    public void onApproved(Booking booking, LocalDateTime now) {
+        ItemSummary summary = lockSummary(booking.getItem());
+        if (booking.getStart().isAfter(now)) {
+            if (summary.getNextBooking() == null || booking.getStart().isBefore(summary.getNextBooking().getStart())) {
+                summary.setNextBooking(booking);
+            }
+        } else if (booking.getStart().isBefore(now)) {
+            if (summary.getLastBooking() == null || booking.getStart().isAfter(summary.getLastBooking().getStart())) {
+                summary.setLastBooking(booking);
+            }
+        }
+    }
+
+    /**
+     * Учитывает бронирования, подтверждённые уже закоммиченной транзакцией: они заново читаются из базы.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onApprovedAll(Collection<Long> bookingIds, LocalDateTime now) {
+        bookingRepository.findAllByIdIn(bookingIds).stream()
+                .filter(booking -> booking.getStatus() == Status.APPROVED)
+                .forEach(booking -> onApproved(booking, now));
+    }
+
+    public void onComment(Item item) {
+        ItemSummary summary = lockSummary(item);
+        summary.setCommentCount(summary.getCommentCount() + 1);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item-summary.roll-forward-ms:60000}")
+    @Transactional
+    public void rollForward() {
+        rollForward(LocalDateTime.now());
+    }
+
+    @Transactional
+    public void rollForward(LocalDateTime now) {
+        List<Long> itemIds = itemSummaryRepository.findItemIdsWithStartedNextBooking(now);
+        itemIds.forEach(itemId -> recompute(itemId, now));
+        if (!itemIds.isEmpty()) {
+            log.info("Обновлены сводки {} вещей", itemIds.size());
+        }
+    }
+
+    /**
+     * Заново находит последнее и ближайшее бронирования вещей. Вызывается и после коммита другой транзакции,
+     * поэтому всегда выполняется в собственной.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recomputeAll(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        itemIds.forEach(itemId -> recompute(itemId, now));
+    }
+
+    private void recompute(Long itemId, LocalDateTime now) {
+        itemSummaryRepository.findForUpdate(itemId).ifPresent(summary -> {
+            summary.setLastBooking(bookingRepository
+                    .findFirstByItemIdAndStatusAndStartBeforeOrderByStartDescIdDesc(itemId, Status.APPROVED, now)
+                    .orElse(null));
+            summary.setNextBooking(bookingRepository
+                    .findFirstByItemIdAndStatusAndStartAfterOrderByStartAscIdAsc(itemId, Status.APPROVED, now)
+                    .orElse(null));
+        });
+    }
+
+    private ItemSummary lockSummary(Item item) {
+        return itemSummaryRepository.findForUpdate(item.getId())
+                .orElseGet(() -> itemSummaryRepository.save(new ItemSummary(null, item, null, null, 0)));
+    }
+}
@@ -1,11 +1,13 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestRespDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -27,8 +29,13 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestRespDto> getAllRequests(@RequestHeader(USER_HEADER) Long userId) {
-        return itemRequestService.getAllRequests(userId);
+    public List<ItemRequestRespDto> getAllRequests(@RequestHeader(USER_HEADER) Long userId,
+                                                   @RequestParam(required = false)
+                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime afterCreated,
+                                                   @RequestParam(required = false) Long afterId,
+                                                   @RequestParam(required = false) Integer size) {
+        return itemRequestService.getAllRequests(userId, afterCreated, afterId, size);
     }
 
     @GetMapping("/{requestId}")
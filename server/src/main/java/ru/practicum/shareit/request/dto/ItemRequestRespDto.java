@@ -11,6 +11,7 @@ public record ItemRequestRespDto(
         String description,
         UserDto requester,
         LocalDateTime created,
-        List<ItemDto> items
+        List<ItemDto> items,
+        List<ItemDto> suggestedItems
 ) {
 }
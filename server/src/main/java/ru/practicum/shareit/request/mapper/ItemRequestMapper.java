@@ -9,6 +9,7 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @UtilityClass
@@ -16,7 +17,7 @@ public class ItemRequestMapper {
     public static ItemRequest toItemRequest(ItemRequestDto itemRequestDto, User user) {
         var itemRequest = new ItemRequest();
         itemRequest.setDescription(itemRequestDto.description());
-        itemRequest.setCreated(LocalDateTime.now());
+        itemRequest.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
         itemRequest.setRequester(user);
         return itemRequest;
     }
@@ -27,6 +28,7 @@ public class ItemRequestMapper {
                 itemRequest.getDescription(),
                 UserMapper.toDto(itemRequest.getRequester()),
                 itemRequest.getCreated(),
+                null,
                 null
         );
     }
@@ -37,7 +39,20 @@ public class ItemRequestMapper {
                 itemRequest.getDescription(),
                 UserMapper.toDto(itemRequest.getRequester()),
                 itemRequest.getCreated(),
-                items
+                items,
+                null
+        );
+    }
+
+    public static ItemRequestRespDto toDto(ItemRequest itemRequest, List<ItemDto> items,
+                                           List<ItemDto> suggestedItems) {
+        return new ItemRequestRespDto(
+                itemRequest.getId(),
+                itemRequest.getDescription(),
+                UserMapper.toDto(itemRequest.getRequester()),
+                itemRequest.getCreated(),
+                items,
+                suggestedItems
         );
     }
 }
@@ -1,10 +1,41 @@
 package ru.practicum.shareit.request.repo;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @Override
+    @EntityGraph("ItemRequest.requester")
+    Optional<ItemRequest> findById(Long id);
+
+    @EntityGraph("ItemRequest.requester")
+    @Query("SELECT r FROM ItemRequest r WHERE r.requester.id <> :userId " +
+            "AND (r.created < :afterCreated OR (r.created = :afterCreated AND r.id < :afterId)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findPageByOtherUsers(@Param("userId") Long userId,
+                                           @Param("afterCreated") LocalDateTime afterCreated,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+
+    @Query("SELECT r.id FROM ItemRequest r WHERE r.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph("ItemRequest.requester")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "requests-by-requester")
+    })
     List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(Long userId);
 }
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.service;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestRespDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestService {
@@ -10,7 +11,7 @@ public interface ItemRequestService {
 
     List<ItemRequestRespDto> getAllUserRequests(Long userId);
 
-    List<ItemRequestRespDto> getAllRequests(Long userId);
+    List<ItemRequestRespDto> getAllRequests(Long userId, LocalDateTime afterCreated, Long afterId, Integer size);
 
     ItemRequestRespDto getRequestById(Long requestId);
 }
@@ -2,81 +2,82 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.mapper.ItemMapper;
-import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repo.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestRespDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repo.ItemRequestRepository;
+import ru.practicum.shareit.request.suggest.RequestItemSuggester;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repo.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final LocalDateTime LAST_CREATED = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRepository itemRepository;
+    private final RequestItemSuggester requestItemSuggester;
+    @Value("${shareit.requests.max-page-size:100}")
+    private int maxPageSize;
 
     @Transactional
     @Override
     public ItemRequestRespDto createItemRequest(ItemRequestDto itemRequestDto, Long userId) {
         log.info("Создание запроса - {} вещи пользователем с id - {}", itemRequestDto, userId);
-        User user = userRepository.findById(userId).orElseThrow(()
+        userCache.findById(userId).orElseThrow(()
                 -> new NotFoundException("Пользователь не найден"));
+        User user = userRepository.getReferenceById(userId);
         ItemRequest itemRequest = itemRequestRepository.save(ItemRequestMapper.toItemRequest(itemRequestDto, user));
+        requestItemSuggester.suggestAfterCommit(itemRequest.getId(), itemRequest.getDescription());
         return ItemRequestMapper.toDto(itemRequest);
     }
 
     @Override
     public List<ItemRequestRespDto> getAllUserRequests(Long userId) {
         log.info("Получение всех запросов пользователя с id - {}", userId);
-        User user = userRepository.findById(userId).orElseThrow(()
+        userCache.findById(userId).orElseThrow(()
                 -> new NotFoundException("Пользователь не найден"));
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId);
-        List<Item> items = itemRepository.findAllByRequestIdIn(
-                requests.stream()
-                        .map(ItemRequest::getId).toList()
-        );
-        return requests.stream()
-                .map(request -> {
-                    List<ItemDto> requestItems = items.stream()
-                            .filter(item -> request.getId().equals(item.getRequest().getId()))
-                            .map(ItemMapper::toDto)
-                            .toList();
-                    return ItemRequestMapper.toDto(request, requestItems);
-                })
-                .toList();
+        return withItems(itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId));
     }
 
     @Override
-    public List<ItemRequestRespDto> getAllRequests(Long userId) {
+    public List<ItemRequestRespDto> getAllRequests(Long userId, LocalDateTime afterCreated, Long afterId,
+                                                   Integer size) {
         log.info("Получение всех запросов пользователем с id - {}", userId);
-        User user = userRepository.findById(userId).orElseThrow(()
+        userCache.findById(userId).orElseThrow(()
                 -> new NotFoundException("Пользователь не найден"));
-        List<ItemRequest> requests = itemRequestRepository.findAll();
-        List<Item> items = itemRepository.findAllByRequestIdIn(
-                requests.stream()
-                        .map(ItemRequest::getId).toList()
-        );
-        return requests.stream()
-                .map(request -> {
-                    List<ItemDto> requestItems = items.stream()
-                            .filter(item -> request.getId().equals(item.getRequest().getId()))
-                            .map(ItemMapper::toDto)
-                            .toList();
-                    return ItemRequestMapper.toDto(request, requestItems);
-                })
-                .toList();
+        if ((afterCreated == null) != (afterId == null)) {
+            throw new ValidationException("Курсор страницы задаётся парой afterCreated и afterId");
+        }
+        if (size != null && size <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
+        List<ItemRequest> requests = itemRequestRepository.findPageByOtherUsers(userId,
+                afterCreated == null ? LAST_CREATED : afterCreated,
+                afterId == null ? Long.MAX_VALUE : afterId,
+                PageRequest.of(0, size == null ? maxPageSize : Math.min(size, maxPageSize)));
+        return withItems(requests);
     }
 
     @Override
@@ -85,10 +86,43 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(()
                         -> new NotFoundException("Запрос не найден"));
-        List<ItemDto> items = itemRepository.findByRequestId(requestId)
+        List<ItemDto> items = itemRepository.findViewsByRequestId(requestId)
                 .stream()
                 .map(ItemMapper::toDto)
                 .toList();
-        return ItemRequestMapper.toDto(itemRequest, items);
+        return ItemRequestMapper.toDto(itemRequest, items, suggestedItems(itemRequest));
+    }
+
+    private List<ItemDto> suggestedItems(ItemRequest itemRequest) {
+        List<Long> itemIds = requestItemSuggester.getSuggestions(itemRequest.getId(), itemRequest.getDescription());
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ItemView> itemsById = itemRepository.findViewsByIdIn(itemIds).stream()
+                .filter(ItemView::available)
+                .filter(item -> !item.ownerId().equals(itemRequest.getRequester().getId()))
+                .filter(item -> !itemRequest.getId().equals(item.requestId()))
+                .collect(Collectors.toMap(ItemView::id, item -> item));
+        return itemIds.stream()
+                .filter(itemsById::containsKey)
+                .map(itemsById::get)
+                .map(ItemMapper::toDto)
+                .toList();
+    }
+
+    private List<ItemRequestRespDto> withItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<ItemDto>> itemsByRequest = itemRepository.findViewsByRequestIdIn(
+                        requests.stream()
+                                .map(ItemRequest::getId).toList()
+                ).stream()
+                .collect(Collectors.groupingBy(ItemView::requestId,
+                        Collectors.mapping(ItemMapper::toDto, Collectors.toList())));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toDto(request,
+                        itemsByRequest.getOrDefault(request.getId(), List.of())))
+                .toList();
     }
 }
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.request.suggest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Подбор существующих вещей под запрос по похожести текста описания.
+ * После коммита нового запроса подбор выполняется в фоне на applicationTaskExecutor из Spring Boot,
+ * который сам выбирает виртуальные или платформенные потоки по spring.threads.virtual.enabled.
+ * Число ожидающих и выполняемых подборов ограничено, лишние откладываются до чтения.
+ * Результат хранится в LRU-кэше вместе с версией каталога вещей и считается устаревшим,
+ * как только вещи меняются. Устаревший или отсутствующий результат пересчитывается при чтении.
+ */
+@Slf4j
+@Component
+public class RequestItemSuggester {
+    private final ItemSearchEngine itemSearchEngine;
+    private final double threshold;
+    private final int limit;
+    private final TaskExecutor executor;
+    private final Semaphore pending;
+    private final Map<Long, Suggestions> cache;
+    private final AtomicLong itemsVersion = new AtomicLong();
+
+    public RequestItemSuggester(ItemSearchEngine itemSearchEngine,
+                                @Value("${shareit.search.similarity-threshold:0.3}") double threshold,
+                                @Value("${shareit.requests.suggestions.limit:10}") int limit,
+                                @Value("${shareit.requests.suggestions.max-pending:100}") int maxPending,
+                                @Value("${shareit.requests.suggestions.cache-size:1000}") int cacheSize,
+                                @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                TaskExecutor executor) {
+        this.itemSearchEngine = itemSearchEngine;
+        this.threshold = threshold;
+        this.limit = limit;
+        this.executor = executor;
+        this.pending = new Semaphore(maxPending);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Suggestions> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Ставит подбор в очередь после коммита транзакции, в которой создан запрос.
+     * Если ожидающих подборов уже слишком много, подбор будет выполнен при первом чтении запроса.
+     */
+    public void suggestAfterCommit(Long requestId, String description) {
+        Runnable task = () -> suggest(requestId, description);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(requestId, task);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(requestId, task);
+            }
+        });
+    }
+
+    public List<Long> getSuggestions(Long requestId, String description) {
+        Suggestions suggestions = cache.get(requestId);
+        if (suggestions != null && suggestions.version() == itemsVersion.get()) {
+            return suggestions.itemIds();
+        }
+        return suggest(requestId, description);
+    }
+
+    public void itemsChanged() {
+        itemsVersion.incrementAndGet();
+    }
+
+    private List<Long> suggest(Long requestId, String description) {
+        long version = itemsVersion.get();
+        List<Long> itemIds = description == null || description.isBlank()
+                ? List.of()
+                : List.copyOf(itemSearchEngine.searchSimilar(description, threshold, limit));
+        cache.put(requestId, new Suggestions(version, itemIds));
+        return itemIds;
+    }
+
+    private void submit(Long requestId, Runnable task) {
+        if (!pending.tryAcquire()) {
+            log.warn("Очередь подбора вещей заполнена, подбор для запроса с id - {} отложен до чтения", requestId);
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    pending.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.release();
+            log.warn("Фоновый подбор вещей недоступен, подбор для запроса с id - {} отложен до чтения", requestId);
+        }
+    }
+
+    private record Suggestions(long version, List<Long> itemIds) {
+    }
+}
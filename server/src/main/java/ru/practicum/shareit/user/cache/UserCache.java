@@ -0,0 +1,93 @@
+package ru.practicum.shareit.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.dto.UserView;
+import ru.practicum.shareit.user.repo.UserRepository;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Кэш существующих пользователей для проверки заголовка X-Sharer-User-Id.
+ * Пользователь попадает в кэш только после коммита транзакции, в которой он был прочитан,
+ * поэтому откат не оставляет в кэше несуществующих id. Отсутствующие id не кэшируются.
+ * Каждая инвалидация увеличивает поколение группы id, и прочитанный пользователь кладётся в кэш,
+ * только если поколение его группы не изменилось с момента чтения: иначе транзакция, начавшаяся до удаления
+ * и закоммиченная после него, вернула бы удалённого пользователя в кэш.
+ */
+@Component
+public class UserCache {
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, UserView> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${shareit.users.cache.max-size:10000}") long maxSize,
+                     @Value("${shareit.users.cache.ttl:PT10M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<UserView> findById(Long userId) {
+        UserView cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = generations.get(stripe(userId));
+        Optional<UserView> user = userRepository.findViewById(userId);
+        user.ifPresent(view -> putAfterCommit(view, generation));
+        return user;
+    }
+
+    public void invalidate(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long userId) {
+        generations.incrementAndGet(stripe(userId));
+        cache.invalidate(userId);
+    }
+
+    private void putAfterCommit(UserView user, long generation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(user, generation);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(user, generation);
+            }
+        });
+    }
+
+    // проверка поколения и запись атомарны относительно инвалидации того же id
+    private void put(UserView user, long generation) {
+        cache.asMap().compute(user.id(), (id, cached) ->
+                generations.get(stripe(id)) == generation ? user : cached);
+    }
+
+    private static int stripe(Long userId) {
+        return Math.floorMod(Objects.hashCode(userId), GENERATION_STRIPES);
+    }
+}
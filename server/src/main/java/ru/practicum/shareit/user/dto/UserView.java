@@ -0,0 +1,7 @@
+package ru.practicum.shareit.user.dto;
+
+public record UserView(
+        Long id,
+        String name
+) {
+}
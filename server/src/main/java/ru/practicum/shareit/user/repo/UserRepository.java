@@ -1,7 +1,10 @@
 package ru.practicum.shareit.user.repo;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.user.dto.UserView;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.Optional;
@@ -9,4 +12,7 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserView(u.id, u.name) FROM User u WHERE u.id = :id")
+    Optional<UserView> findViewById(@Param("id") Long id);
 }
@@ -1,10 +1,25 @@
 package ru.practicum.shareit.user.service;
 
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repo.BookingRepository;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repo.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.item.summary.ItemSummaryTracker;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.suggest.RequestItemSuggester;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -18,6 +33,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final RequestItemSuggester requestItemSuggester;
+    private final ItemSummaryTracker itemSummaryTracker;
 
     @Transactional
     @Override
@@ -55,6 +79,7 @@ public class UserServiceImpl implements UserService {
             user.setEmail(userDto.email());
         }
         userRepository.save(user);
+        userCache.invalidate(id);
         return UserMapper.toDto(user);
     }
 
@@ -62,6 +87,34 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteUserById(Long id) {
         log.info("Удаление пользователя с id - {}", id);
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(id);
+        List<Long> bookedItemIds = bookingRepository.findItemIdsByBookerIdAndStatusIn(id,
+                List.of(Status.WAITING, Status.APPROVED));
         userRepository.deleteById(id);
+        userCache.invalidate(id);
+        evictCascadedAfterCommit(itemIds, bookedItemIds);
+    }
+
+    // вещи, бронирования и запросы пользователя удаляются каскадом в базе, мимо кэша второго уровня Hibernate,
+    // индексов вещей в памяти и сводок вещей, в которых удалённое бронирование заменяется на null
+    private void evictCascadedAfterCommit(List<Long> itemIds, List<Long> bookedItemIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Cache cache = entityManagerFactory.getCache();
+                cache.evict(Item.class);
+                cache.evict(ItemRequest.class);
+                for (Long itemId : itemIds) {
+                    itemSearchEngine.remove(itemId);
+                    itemSuggestIndex.remove(itemId);
+                    itemAvailabilityIndex.forget(itemId);
+                }
+                bookedItemIds.forEach(itemAvailabilityIndex::forget);
+                itemSummaryTracker.recomputeAll(bookedItemIds);
+                if (!itemIds.isEmpty()) {
+                    requestItemSuggester.itemsChanged();
+                }
+            }
+        });
     }
 }
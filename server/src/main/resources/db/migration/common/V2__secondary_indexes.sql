@@ -0,0 +1,15 @@
+CREATE INDEX IF NOT EXISTS requests_requester_created_idx ON requests (requester_id, created);
+
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_time, id);
+
+CREATE INDEX IF NOT EXISTS bookings_item_status_start_idx ON bookings (item_id, status, start_time, id);
+
+CREATE INDEX IF NOT EXISTS bookings_item_status_end_idx ON bookings (item_id, status, end_time);
+
+CREATE INDEX IF NOT EXISTS bookings_user_start_idx ON bookings (user_id, start_time, id);
+
+CREATE INDEX IF NOT EXISTS comments_item_idx ON comments (item_id);
@@ -0,0 +1,23 @@
+CREATE TABLE IF NOT EXISTS item_summary (
+    item_id INT PRIMARY KEY,
+    last_booking_id INT,
+    next_booking_id INT,
+    comment_count INT NOT NULL DEFAULT 0,
+    FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    FOREIGN KEY (last_booking_id) REFERENCES bookings (id) ON DELETE SET NULL,
+    FOREIGN KEY (next_booking_id) REFERENCES bookings (id) ON DELETE SET NULL
+);
+
+CREATE INDEX IF NOT EXISTS item_summary_next_booking_idx ON item_summary (next_booking_id);
+
+INSERT INTO item_summary (item_id, last_booking_id, next_booking_id, comment_count)
+SELECT i.id,
+       (SELECT b.id FROM bookings b
+        WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_time < CURRENT_TIMESTAMP
+        ORDER BY b.start_time DESC, b.id DESC LIMIT 1),
+       (SELECT b.id FROM bookings b
+        WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_time > CURRENT_TIMESTAMP
+        ORDER BY b.start_time, b.id LIMIT 1),
+       (SELECT COUNT(*) FROM comments c WHERE c.item_id = i.id)
+FROM items i
+WHERE NOT EXISTS (SELECT 1 FROM item_summary s WHERE s.item_id = i.id);
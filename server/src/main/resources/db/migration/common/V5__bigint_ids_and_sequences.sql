@@ -0,0 +1,28 @@
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+
+ALTER TABLE users ALTER COLUMN id SET DATA TYPE BIGINT;
+ALTER TABLE requests ALTER COLUMN id SET DATA TYPE BIGINT;
+ALTER TABLE requests ALTER COLUMN requester_id SET DATA TYPE BIGINT;
+ALTER TABLE items ALTER COLUMN id SET DATA TYPE BIGINT;
+ALTER TABLE items ALTER COLUMN owner_id SET DATA TYPE BIGINT;
+ALTER TABLE items ALTER COLUMN request_id SET DATA TYPE BIGINT;
+ALTER TABLE bookings ALTER COLUMN id SET DATA TYPE BIGINT;
+ALTER TABLE bookings ALTER COLUMN item_id SET DATA TYPE BIGINT;
+ALTER TABLE bookings ALTER COLUMN user_id SET DATA TYPE BIGINT;
+ALTER TABLE comments ALTER COLUMN id SET DATA TYPE BIGINT;
+ALTER TABLE comments ALTER COLUMN author_id SET DATA TYPE BIGINT;
+ALTER TABLE comments ALTER COLUMN item_id SET DATA TYPE BIGINT;
+ALTER TABLE item_summary ALTER COLUMN item_id SET DATA TYPE BIGINT;
+ALTER TABLE item_summary ALTER COLUMN last_booking_id SET DATA TYPE BIGINT;
+ALTER TABLE item_summary ALTER COLUMN next_booking_id SET DATA TYPE BIGINT;
+
+-- шаг последовательностей совпадает с allocationSize сущностей (pooled-оптимизатор Hibernate)
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,20 @@
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(name, '') || ' ' || coalesce(description, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS items_search_vector_idx ON items USING GIN (search_vector);
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS items_name_trgm_idx ON items USING GIN (name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS items_description_trgm_idx ON items USING GIN (description gin_trgm_ops);
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS period tsrange
+    GENERATED ALWAYS AS (tsrange(start_time, end_time, '[)')) STORED;
+
+ALTER TABLE bookings DROP CONSTRAINT IF EXISTS bookings_approved_no_overlap;
+
+ALTER TABLE bookings ADD CONSTRAINT bookings_approved_no_overlap
+    EXCLUDE USING gist (item_id WITH =, period WITH &&) WHERE (status = 'APPROVED');
@@ -0,0 +1,7 @@
+-- pooled-оптимизатор выдаёт диапазон (значение - 49 .. значение], поэтому первое значение
+-- последовательности должно быть не меньше max(id) + 50
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users), false);
+SELECT setval('requests_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM requests), false);
+SELECT setval('items_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM items), false);
+SELECT setval('bookings_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM bookings), false);
+SELECT setval('comments_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM comments), false);
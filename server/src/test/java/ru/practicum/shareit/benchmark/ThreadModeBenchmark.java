@@ -0,0 +1,225 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сравнение обработки запросов сервером в платформенных и виртуальных потоках. Сервер поднимается на H2
+ * (профиль test) для каждого сценария и режима; clients быстрых клиентов выполняют по requests запросов
+ * GET /items/{id} и GET /bookings/owner, печатаются пропускная способность и p50/p99 их задержки.
+ * Сценарии:
+ * db - к каждому SQL-запросу добавляется задержка dbLatencyMs, как у базы в сети;
+ * slow - параллельно slowClients медленных клиентов читают большую выдачу /items/search маленькими порциями,
+ * удерживая поток сервера, пока ответ не будет дочитан;
+ * db+slow - оба фактора сразу.
+ * Запуск из каталога server после mvn test-compile:
+ * java -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)
+ * ru.practicum.shareit.benchmark.ThreadModeBenchmark [clients] [requests] [dbLatencyMs] [slowClients]
+ */
+public class ThreadModeBenchmark {
+    private static final int WARMUP_REQUESTS = 2000;
+    private static final int SEARCH_ITEMS = 100;
+    private static final int DESCRIPTION_LENGTH = 8 * 1024;
+    private static final int SLOW_RECEIVE_BUFFER = 4 * 1024;
+    private static final int SLOW_READ_CHUNK = 4 * 1024;
+    private static final long SLOW_READ_PAUSE_MILLIS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long dbLatencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 5;
+        int slowClients = args.length > 3 ? Integer.parseInt(args[3]) : 300;
+        List<Scenario> scenarios = List.of(
+                new Scenario("db", dbLatencyMillis, 0),
+                new Scenario("slow", 0, slowClients),
+                new Scenario("db+slow", dbLatencyMillis, slowClients));
+        for (Scenario scenario : scenarios) {
+            for (boolean virtualThreads : new boolean[]{false, true}) {
+                Result result = run(scenario, virtualThreads, clients, requests);
+                System.out.printf("%-8s %-8s dbLatency=%d ms slowClients=%d clients=%d requests=%d "
+                                + "throughput=%.0f req/s p50=%.1f ms p99=%.1f ms errors=%d slowResponses=%d%n",
+                        scenario.name(), virtualThreads ? "virtual" : "platform", scenario.dbLatencyMillis(),
+                        scenario.slowClients(), clients, clients * requests, result.throughput(),
+                        result.p50Millis(), result.p99Millis(), result.errors(), result.slowResponses());
+            }
+        }
+    }
+
+    private static Result run(Scenario scenario, boolean virtualThreads, int clients, int requests)
+            throws Exception {
+        AtomicLong dbLatency = new AtomicLong();
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItServer.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + scenario.name() + "-" + mode,
+                        "logging.level.ru.practicum=WARN",
+                        "logging.level.org.springframework=WARN")
+                .initializers(applicationContext -> applicationContext.getBeanFactory()
+                        .addBeanPostProcessor(delayingDataSource(dbLatency)))
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Targets targets = seed(context, port);
+            dbLatency.set(scenario.dbLatencyMillis());
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            for (int i = 0; i < WARMUP_REQUESTS; i++) {
+                client.send(targets.fast().get(i % targets.fast().size()), HttpResponse.BodyHandlers.discarding());
+            }
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicInteger slowResponses = new AtomicInteger();
+            ExecutorService slowExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            for (int s = 0; s < scenario.slowClients(); s++) {
+                slowExecutor.submit(() -> {
+                    while (running.get()) {
+                        if (readSlowly(port, targets.slowRequest())) {
+                            slowResponses.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            long[] latencies = new long[clients * requests];
+            AtomicInteger completed = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+            long started = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < clients; c++) {
+                    executor.submit(() -> {
+                        for (int r = 0; r < requests; r++) {
+                            HttpRequest request = targets.fast().get(r % targets.fast().size());
+                            long requestStarted = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = client.send(request,
+                                        HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() != 200) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                            latencies[completed.getAndIncrement()] = System.nanoTime() - requestStarted;
+                        }
+                    });
+                }
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            running.set(false);
+            slowExecutor.shutdownNow();
+            Arrays.sort(latencies);
+            return new Result(latencies.length / seconds, percentile(latencies, 0.50),
+                    percentile(latencies, 0.99), errors.get(), slowResponses.get());
+        }
+    }
+
+    private static BeanPostProcessor delayingDataSource(AtomicLong dbLatency) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? new DelayingDataSource(dataSource, dbLatency) : bean;
+            }
+        };
+    }
+
+    /**
+     * Отправляет запрос с маленьким окном приёма и дочитывает ответ порциями с паузами.
+     */
+    private static boolean readSlowly(int port, String request) {
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(SLOW_RECEIVE_BUFFER);
+            socket.connect(new InetSocketAddress("localhost", port));
+            OutputStream output = socket.getOutputStream();
+            output.write(request.getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+            InputStream input = socket.getInputStream();
+            byte[] buffer = new byte[SLOW_READ_CHUNK];
+            while (input.read(buffer) >= 0) {
+                Thread.sleep(SLOW_READ_PAUSE_MILLIS);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static Targets seed(ConfigurableApplicationContext context, int port) {
+        UserDto owner = context.getBean(UserService.class)
+                .createUser(new UserDto(null, "owner", "owner@benchmark.ru"));
+        UserDto booker = context.getBean(UserService.class)
+                .createUser(new UserDto(null, "booker", "booker@benchmark.ru"));
+        ItemService itemService = context.getBean(ItemService.class);
+        ItemDto item = itemService.createItem(owner.id(),
+                new ItemDto(null, "drill", "cordless drill", true, null, null, null, null, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 20; i++) {
+            context.getBean(BookingService.class).createBooking(
+                    new BookingDto(item.id(), start.plusDays(i * 2L), start.plusDays(i * 2L + 1)), booker.id());
+        }
+        String description = "ladder ".repeat(DESCRIPTION_LENGTH / "ladder ".length());
+        for (int i = 0; i < SEARCH_ITEMS; i++) {
+            itemService.createItem(owner.id(),
+                    new ItemDto(null, "ladder " + i, description, true, null, null, null, null, null));
+        }
+        String baseUrl = "http://localhost:" + port;
+        List<HttpRequest> fast = List.of(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/items/" + item.id()))
+                        .header("X-Sharer-User-Id", String.valueOf(owner.id()))
+                        .build(),
+                HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/owner?size=10"))
+                        .header("X-Sharer-User-Id", String.valueOf(owner.id()))
+                        .build());
+        String slowRequest = "GET /items/search?text=ladder&size=" + SEARCH_ITEMS + " HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "X-Sharer-User-Id: " + owner.id() + "\r\n"
+                + "Connection: close\r\n\r\n";
+        return new Targets(fast, slowRequest);
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(sortedNanos.length * percentile) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    private record Scenario(String name, long dbLatencyMillis, int slowClients) {
+    }
+
+    private record Targets(List<HttpRequest> fast, String slowRequest) {
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis, int errors, int slowResponses) {
+    }
+}
@@ -11,25 +11,35 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.booking.dto.BookerDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.idempotency.IdempotencyFilter;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -56,12 +66,14 @@ public class BookingControllerTest {
 
         mvc = MockMvcBuilders
                 .standaloneSetup(bookingController)
+                .addFilters(new IdempotencyFilter(mapper, 100, Duration.ofMinutes(1), DataSize.ofKilobytes(16)))
                 .build();
         user = new User(1L, "name", "user@email.com");
         item = new Item(0L, "name", "description", true, user, null);
         userDto = new UserDto(0L, "nameDto", "userDto@email.com");
         bookingDto = new BookingDto(0L, null, null);
-        bookingRespDto = new BookingRespDto(0L, null, null, item, user, Status.WAITING);
+        bookingRespDto = new BookingRespDto(0L, null, null, new BookingItemDto(item.getId(), item.getName()),
+                new BookerDto(user.getId()), Status.WAITING);
     }
 
     @Test
@@ -80,6 +92,49 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value("WAITING"));
     }
 
+    @Test
+    void createBookingWithIdempotencyKey() throws Exception {
+        when(bookingService.createBooking(any(BookingDto.class), anyLong()))
+                .thenReturn(bookingRespDto);
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(post("/bookings")
+                            .content(mapper.writeValueAsString(bookingDto))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("X-Sharer-User-Id", userDto.id())
+                            .header(IdempotencyFilter.IDEMPOTENCY_HEADER, "booking-1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(0))
+                    .andExpect(jsonPath("$.status").value("WAITING"));
+        }
+        mvc.perform(post("/bookings")
+                        .content(mapper.writeValueAsString(bookingDto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", userDto.id())
+                        .header(IdempotencyFilter.IDEMPOTENCY_HEADER, "booking-2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        verify(bookingService, times(2)).createBooking(any(BookingDto.class), anyLong());
+    }
+
+    @Test
+    void approveBookings() throws Exception {
+        when(bookingService.approveBookings(anyLong(), any()))
+                .thenReturn(List.of(BookingDecisionResultDto.applied(1L, Status.APPROVED),
+                        BookingDecisionResultDto.failed(2L, "error")));
+
+        mvc.perform(patch("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(new BookingDecisionDto(1L, true),
+                                new BookingDecisionDto(2L, false))))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", userDto.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].bookingId").value(2))
+                .andExpect(jsonPath("$[1].error").value("error"));
+    }
+
     @Test
     void approveBooking() throws Exception {
         when(bookingService.approveBooking(anyLong(), anyLong(), anyBoolean()))
@@ -92,7 +147,7 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(0))
                 .andExpect(jsonPath("$.item.name").value(item.getName()))
-                .andExpect(jsonPath("$.booker.name").value(user.getName()))
+                .andExpect(jsonPath("$.booker.id").value(user.getId()))
                 .andExpect(jsonPath("$.status").value("WAITING"));
     }
 
@@ -107,13 +162,13 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(0))
                 .andExpect(jsonPath("$.item.name").value(item.getName()))
-                .andExpect(jsonPath("$.booker.name").value(user.getName()))
+                .andExpect(jsonPath("$.booker.id").value(user.getId()))
                 .andExpect(jsonPath("$.status").value("WAITING"));
     }
 
     @Test
     void getAllBookingsByUser() throws Exception {
-        when(bookingService.getAllBookingsByUser(anyLong(), any()))
+        when(bookingService.getAllBookingsByUser(anyLong(), any(), any(), any(), any()))
                 .thenReturn(List.of(bookingRespDto));
 
         mvc.perform(get("/bookings?state=")
@@ -132,7 +187,7 @@ public class BookingControllerTest {
 
     @Test
     void getAllBookingsByItems() throws Exception {
-        when(bookingService.getAllBookingsByItems(anyLong(), any()))
+        when(bookingService.getAllBookingsByItems(anyLong(), any(), any(), any(), any()))
                 .thenReturn(List.of(bookingRespDto));
 
         mvc.perform(get("/bookings/owner?state=")
@@ -4,22 +4,39 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repo.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repo.ItemRepository;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repo.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -33,6 +50,16 @@ public class BookingServiceTest {
     UserService userService;
     @Autowired
     BookingService bookingService;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    UserCache userCache;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
     static ItemDto itemDtoInit1;
     static ItemDto itemDtoInit2;
     static ItemDto itemDtoInit3;
@@ -59,8 +86,8 @@ public class BookingServiceTest {
         BookingDto bookingDto = new BookingDto(itemDto.id(), LocalDateTime.now().minusHours(1), LocalDateTime.now());
         BookingRespDto bookingRespDto = bookingService.createBooking(bookingDto, userDto2.id());
 
-        assertThat(bookingRespDto.item().getId()).isEqualTo(itemDto.id());
-        assertThat(bookingRespDto.booker().getId()).isEqualTo(userDto2.id());
+        assertThat(bookingRespDto.item().id()).isEqualTo(itemDto.id());
+        assertThat(bookingRespDto.booker().id()).isEqualTo(userDto2.id());
         assertThat(bookingRespDto.start()).isEqualTo(bookingDto.start());
         assertThat(bookingRespDto.end()).isEqualTo(bookingDto.end());
     }
@@ -87,6 +114,27 @@ public class BookingServiceTest {
                 bookingService.createBooking(bookingDto, userDto2.id())).isInstanceOf(NotFoundException.class);
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void createBookingByUserDeletedAfterCacheCheck() {
+        UserDto ownerDto = userService.createUser(new UserDto(null, "deleted-owner@email.com", "owner"));
+        UserDto bookerDto = userService.createUser(new UserDto(null, "deleted-booker@email.com", "booker"));
+        ItemDto itemDto = itemService.createItem(ownerDto.id(), itemDtoInit1);
+        try {
+            assertThat(userCache.findById(bookerDto.id())).isPresent();
+            // удаление мимо сервиса: в кэше пользователь остаётся
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", bookerDto.id());
+            LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+            assertThatThrownBy(() ->
+                    bookingService.createBooking(new BookingDto(itemDto.id(), start, start.plusDays(1)),
+                            bookerDto.id()))
+                    .isInstanceOf(NotFoundException.class);
+        } finally {
+            userService.deleteUserById(ownerDto.id());
+        }
+    }
+
     @Test
     void createBookingWithNotAvailableItem() {
         UserDto userDto1 = userService.createUser(userDtoInit1);
@@ -99,6 +147,76 @@ public class BookingServiceTest {
                 .isInstanceOf(ValidationException.class);
     }
 
+    @Test
+    void createOverlappingBooking() {
+        UserDto userDto1 = userService.createUser(userDtoInit1);
+        UserDto userDto2 = userService.createUser(userDtoInit2);
+        ItemDto itemDto = itemService.createItem(userDto1.id(), itemDtoInit1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingService.createBooking(new BookingDto(itemDto.id(), start, start.plusHours(2)), userDto2.id());
+
+        assertThatThrownBy(() ->
+                bookingService.createBooking(new BookingDto(itemDto.id(), start.plusHours(1), start.plusHours(3)),
+                        userDto2.id()))
+                .isInstanceOf(ConflictException.class);
+        assertThatThrownBy(() ->
+                bookingService.createBooking(new BookingDto(itemDto.id(), start.minusHours(1), start.plusMinutes(1)),
+                        userDto2.id()))
+                .isInstanceOf(ConflictException.class);
+
+        BookingRespDto adjacent = bookingService.createBooking(new BookingDto(itemDto.id(), start.plusHours(2),
+                start.plusHours(3)), userDto2.id());
+
+        assertThat(adjacent.status()).isEqualTo(Status.WAITING);
+    }
+
+    @Test
+    void createBookingInsideOverlappingLegacyBookings() {
+        UserDto userDto1 = userService.createUser(userDtoInit1);
+        UserDto userDto2 = userService.createUser(userDtoInit2);
+        ItemDto itemDto = itemService.createItem(userDto1.id(), itemDtoInit1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        // пересекающиеся бронирования, сохранённые до появления проверки
+        bookingRepository.save(new Booking(null, start, start.plusDays(9), itemRepository.getReferenceById(itemDto.id()),
+                userRepository.getReferenceById(userDto2.id()), Status.APPROVED, null));
+        bookingRepository.save(new Booking(null, start.plusDays(2), start.plusDays(3),
+                itemRepository.getReferenceById(itemDto.id()), userRepository.getReferenceById(userDto2.id()),
+                Status.WAITING, null));
+
+        assertThatThrownBy(() ->
+                bookingService.createBooking(new BookingDto(itemDto.id(), start.plusDays(4), start.plusDays(5)),
+                        userDto2.id()))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void createBookingAfterRejectedOverlapping() {
+        UserDto userDto1 = userService.createUser(userDtoInit1);
+        UserDto userDto2 = userService.createUser(userDtoInit2);
+        ItemDto itemDto = itemService.createItem(userDto1.id(), itemDtoInit1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingRespDto rejected = bookingService.createBooking(new BookingDto(itemDto.id(), start,
+                start.plusHours(2)), userDto2.id());
+        bookingService.approveBooking(rejected.id(), userDto1.id(), false);
+
+        BookingRespDto booking = bookingService.createBooking(new BookingDto(itemDto.id(), start,
+                start.plusHours(2)), userDto2.id());
+
+        assertThat(booking.id()).isNotEqualTo(rejected.id());
+    }
+
+    @Test
+    void createBookingWithWrongDates() {
+        UserDto userDto1 = userService.createUser(userDtoInit1);
+        UserDto userDto2 = userService.createUser(userDtoInit2);
+        ItemDto itemDto = itemService.createItem(userDto1.id(), itemDtoInit1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        assertThatThrownBy(() ->
+                bookingService.createBooking(new BookingDto(itemDto.id(), start, start), userDto2.id()))
+                .isInstanceOf(ValidationException.class);
+    }
+
     @Test
     void approveBooking() {
         UserDto userDto1 = userService.createUser(userDtoInit1);
@@ -112,6 +230,104 @@ public class BookingServiceTest {
         assertThat(approvedBooking.status()).isEqualTo(Status.APPROVED);
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void approveBookings() {
+        UserDto ownerDto = userService.createUser(userDtoInit1);
+        UserDto bookerDto = userService.createUser(userDtoInit2);
+        try {
+            ItemDto itemDto = itemService.createItem(ownerDto.id(), itemDtoInit1);
+            ItemDto bookerItemDto = itemService.createItem(bookerDto.id(), itemDtoInit2);
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            BookingRespDto first = bookingService.createBooking(
+                    new BookingDto(itemDto.id(), now.plusDays(1), now.plusDays(2)), bookerDto.id());
+            BookingRespDto second = bookingService.createBooking(
+                    new BookingDto(itemDto.id(), now.plusDays(3), now.plusDays(4)), bookerDto.id());
+            BookingRespDto foreign = bookingService.createBooking(
+                    new BookingDto(bookerItemDto.id(), now.plusDays(1), now.plusDays(2)), ownerDto.id());
+
+            List<BookingDecisionResultDto> results = bookingService.approveBookings(ownerDto.id(), List.of(
+                    new BookingDecisionDto(first.id(), true),
+                    new BookingDecisionDto(second.id(), false),
+                    new BookingDecisionDto(foreign.id(), true),
+                    new BookingDecisionDto(999999L, true)));
+
+            assertThat(results).extracting(BookingDecisionResultDto::bookingId)
+                    .containsExactly(first.id(), second.id(), foreign.id(), 999999L);
+            assertThat(results).extracting(BookingDecisionResultDto::status)
+                    .containsExactly(Status.APPROVED, Status.REJECTED, null, null);
+            assertThat(bookingService.getBookingById(first.id(), ownerDto.id()).status())
+                    .isEqualTo(Status.APPROVED);
+            assertThat(bookingService.getBookingById(second.id(), ownerDto.id()).status())
+                    .isEqualTo(Status.REJECTED);
+            assertThat(bookingService.getBookingById(foreign.id(), ownerDto.id()).status())
+                    .isEqualTo(Status.WAITING);
+            assertThat(itemService.getAllUserItems(ownerDto.id()))
+                    .filteredOn(item -> item.id().equals(itemDto.id()))
+                    .singleElement()
+                    .satisfies(item -> assertThat(item.nextBooking().id()).isEqualTo(first.id()));
+            assertThat(bookingService.createBooking(new BookingDto(itemDto.id(), now.plusDays(3), now.plusDays(4)),
+                    bookerDto.id()).status()).isEqualTo(Status.WAITING);
+        } finally {
+            userService.deleteUserById(bookerDto.id());
+            userService.deleteUserById(ownerDto.id());
+        }
+    }
+
+    @Test
+    void approveBookingsWithOverlapsAndMissingDecision() {
+        UserDto ownerDto = userService.createUser(userDtoInit1);
+        UserDto bookerDto = userService.createUser(userDtoInit2);
+        ItemDto itemDto = itemService.createItem(ownerDto.id(), itemDtoInit1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        // пересекающиеся бронирования, сохранённые до появления проверки
+        Booking approved = bookingRepository.save(new Booking(null, start, start.plusDays(2),
+                itemRepository.getReferenceById(itemDto.id()), userRepository.getReferenceById(bookerDto.id()),
+                Status.APPROVED, null));
+        Booking overlapsApproved = bookingRepository.save(new Booking(null, start.plusDays(1), start.plusDays(3),
+                itemRepository.getReferenceById(itemDto.id()), userRepository.getReferenceById(bookerDto.id()),
+                Status.WAITING, null));
+        Booking first = bookingRepository.save(new Booking(null, start.plusDays(5), start.plusDays(7),
+                itemRepository.getReferenceById(itemDto.id()), userRepository.getReferenceById(bookerDto.id()),
+                Status.WAITING, null));
+        Booking overlapsFirst = bookingRepository.save(new Booking(null, start.plusDays(6), start.plusDays(8),
+                itemRepository.getReferenceById(itemDto.id()), userRepository.getReferenceById(bookerDto.id()),
+                Status.WAITING, null));
+
+        List<BookingDecisionResultDto> results = bookingService.approveBookings(ownerDto.id(), Arrays.asList(
+                new BookingDecisionDto(overlapsApproved.getId(), true),
+                new BookingDecisionDto(first.getId(), true),
+                null,
+                new BookingDecisionDto(overlapsFirst.getId(), true)));
+
+        assertThat(results).extracting(BookingDecisionResultDto::status)
+                .containsExactly(null, Status.APPROVED, null, null);
+        assertThat(results).extracting(BookingDecisionResultDto::error)
+                .containsExactly("Вещь уже забронирована на это время", null,
+                        "Не указано бронирование или решение", "Вещь уже забронирована на это время");
+        assertThat(bookingService.getBookingById(approved.getId(), ownerDto.id()).status())
+                .isEqualTo(Status.APPROVED);
+        assertThat(bookingService.getBookingById(overlapsFirst.getId(), ownerDto.id()).status())
+                .isEqualTo(Status.WAITING);
+    }
+
+    @Test
+    void approveBookingsWithDuplicateDecisions() {
+        UserDto ownerDto = userService.createUser(userDtoInit1);
+        UserDto bookerDto = userService.createUser(userDtoInit2);
+        ItemDto itemDto = itemService.createItem(ownerDto.id(), itemDtoInit1);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        BookingRespDto booking = bookingService.createBooking(
+                new BookingDto(itemDto.id(), now.plusDays(1), now.plusDays(2)), bookerDto.id());
+
+        List<BookingDecisionResultDto> results = bookingService.approveBookings(ownerDto.id(), List.of(
+                new BookingDecisionDto(booking.id(), true),
+                new BookingDecisionDto(booking.id(), false)));
+
+        assertThat(results).allMatch(result -> result.error() != null);
+        assertThat(bookingService.getBookingById(booking.id(), ownerDto.id()).status()).isEqualTo(Status.WAITING);
+    }
+
     @Test
     void rejectBooking() {
         UserDto userDto1 = userService.createUser(userDtoInit1);
@@ -160,6 +376,49 @@ public class BookingServiceTest {
                 .isInstanceOf(ValidationException.class);
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void approveBookingConcurrently() throws Exception {
+        UserDto ownerDto = userService.createUser(new UserDto(null, "concurrent-owner@email.com", "owner"));
+        UserDto bookerDto = userService.createUser(new UserDto(null, "concurrent-booker@email.com", "booker"));
+        ItemDto itemDto = itemService.createItem(ownerDto.id(), itemDtoInit1);
+        try {
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            BookingRespDto booking = bookingService.createBooking(
+                    new BookingDto(itemDto.id(), now.plusDays(1), now.plusDays(2)), bookerDto.id());
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<BookingRespDto>> decisions = List.of(
+                        executor.submit(() -> {
+                            start.await();
+                            return bookingService.approveBooking(booking.id(), ownerDto.id(), true);
+                        }),
+                        executor.submit(() -> {
+                            start.await();
+                            return bookingService.approveBooking(booking.id(), ownerDto.id(), false);
+                        }));
+                start.countDown();
+                int succeeded = 0;
+                for (Future<BookingRespDto> decision : decisions) {
+                    try {
+                        decision.get();
+                        succeeded++;
+                    } catch (ExecutionException e) {
+                        assertThat(e.getCause()).isInstanceOfAny(ValidationException.class, ConflictException.class);
+                    }
+                }
+                assertThat(succeeded).isEqualTo(1);
+            } finally {
+                executor.shutdown();
+            }
+        } finally {
+            itemService.deleteItem(itemDto.id());
+            userService.deleteUserById(bookerDto.id());
+            userService.deleteUserById(ownerDto.id());
+        }
+    }
+
     @Test
     void getBookingById() {
         UserDto userDto1 = userService.createUser(userDtoInit1);
@@ -170,7 +429,7 @@ public class BookingServiceTest {
 
         BookingRespDto findedBooking = bookingService.getBookingById(bookingRespDto.id(), userDto2.id());
 
-        assertThat(bookingRespDto.item().getId()).isEqualTo(findedBooking.item().getId());
+        assertThat(bookingRespDto.item().id()).isEqualTo(findedBooking.item().id());
         assertThat(bookingRespDto.start()).isEqualTo(findedBooking.start());
         assertThat(bookingRespDto.end()).isEqualTo(findedBooking.end());
     }
@@ -217,7 +476,7 @@ public class BookingServiceTest {
         BookingRespDto approvedBooking1 = bookingService.approveBooking(bookingRespDto1.id(), userDto1.id(), false);
         BookingRespDto approvedBooking2 = bookingService.approveBooking(bookingRespDto2.id(), userDto1.id(), false);
 
-        List<BookingRespDto> findedBookings = bookingService.getAllBookingsByUser(userDto2.id(), State.REJECTED);
+        List<BookingRespDto> findedBookings = bookingService.getAllBookingsByUser(userDto2.id(), State.REJECTED, null, null, null);
 
         assertThat(findedBookings.size()).isEqualTo(2);
     }
@@ -235,7 +494,7 @@ public class BookingServiceTest {
         bookingService.createBooking(bookingDto1, userDto2.id());
         bookingService.createBooking(bookingDto2, userDto2.id());
 
-        List<BookingRespDto> findedBookings = bookingService.getAllBookingsByUser(userDto2.id(), State.CURRENT);
+        List<BookingRespDto> findedBookings = bookingService.getAllBookingsByUser(userDto2.id(), State.CURRENT, null, null, null);
 
         assertThat(findedBookings.size()).isEqualTo(2);
     }
@@ -253,7 +512,7 @@ public class BookingServiceTest {
         bookingService.createBooking(bookingDto1, userDto2.id());
         bookingService.createBooking(bookingDto2, userDto2.id());
 
-        List<BookingRespDto> findedBookings = bookingService.getAllBookingsByUser(userDto2.id(), State.FUTURE);
+        List<BookingRespDto> findedBookings = bookingService.getAllBookingsByUser(userDto2.id(), State.FUTURE, null, null, null);
 
         assertThat(findedBookings.size()).isEqualTo(2);
     }
@@ -271,7 +530,7 @@ public class BookingServiceTest {
         bookingService.createBooking(bookingDto1, userDto2.id());
         bookingService.createBooking(bookingDto2, userDto2.id());
 
-        List<BookingRespDto> findedBookings = bookingService.getAllBookingsByUser(userDto2.id(), State.WAITING);
+        List<BookingRespDto> findedBookings = bookingService.getAllBookingsByUser(userDto2.id(), State.WAITING, null, null, null);
 
         assertThat(findedBookings.size()).isEqualTo(2);
     }
@@ -289,7 +548,7 @@ public class BookingServiceTest {
         bookingService.createBooking(bookingDto1, userDto2.id());
         bookingService.createBooking(bookingDto2, userDto2.id());
 
-        List<BookingRespDto> findedBookings = bookingService.getAllBookingsByUser(userDto2.id(), State.PAST);
+        List<BookingRespDto> findedBookings = bookingService.getAllBookingsByUser(userDto2.id(), State.PAST, null, null, null);
 
         assertThat(findedBookings.size()).isEqualTo(2);
     }
@@ -311,7 +570,7 @@ public class BookingServiceTest {
         bookingService.approveBooking(bookingRespDto2.id(), userDto1.id(), false);
 
         assertThatThrownBy(() ->
-                bookingService.getAllBookingsByUser(10L, State.REJECTED))
+                bookingService.getAllBookingsByUser(10L, State.REJECTED, null, null, null))
                 .isInstanceOf(NotFoundException.class);
     }
 
@@ -328,11 +587,61 @@ public class BookingServiceTest {
         BookingRespDto bookingRespDto1 = bookingService.createBooking(bookingDto1, userDto2.id());
         BookingRespDto bookingRespDto2 = bookingService.createBooking(bookingDto2, userDto2.id());
 
-        List<BookingRespDto> findedBookings = bookingService.getAllBookingsByItems(userDto1.id(), State.ALL);
+        List<BookingRespDto> findedBookings = bookingService.getAllBookingsByItems(userDto1.id(), State.ALL, null, null, null);
 
         assertThat(findedBookings.size()).isEqualTo(2);
     }
 
+    @Test
+    void getAllBookingsByItemsWithState() {
+        UserDto userDto1 = userService.createUser(userDtoInit1);
+        UserDto userDto2 = userService.createUser(userDtoInit2);
+        ItemDto itemDto1 = itemService.createItem(userDto1.id(), itemDtoInit1);
+        BookingRespDto past = bookingService.createBooking(new BookingDto(itemDto1.id(),
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1)), userDto2.id());
+        BookingRespDto current = bookingService.createBooking(new BookingDto(itemDto1.id(),
+                LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1)), userDto2.id());
+        BookingRespDto future = bookingService.createBooking(new BookingDto(itemDto1.id(),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)), userDto2.id());
+        bookingService.approveBooking(current.id(), userDto1.id(), false);
+
+        assertThat(bookingService.getAllBookingsByItems(userDto1.id(), State.PAST, null, null, null))
+                .extracting(BookingRespDto::id).containsExactly(past.id());
+        assertThat(bookingService.getAllBookingsByItems(userDto1.id(), State.CURRENT, null, null, null))
+                .extracting(BookingRespDto::id).containsExactly(current.id());
+        assertThat(bookingService.getAllBookingsByItems(userDto1.id(), State.FUTURE, null, null, null))
+                .extracting(BookingRespDto::id).containsExactly(future.id());
+        assertThat(bookingService.getAllBookingsByItems(userDto1.id(), State.REJECTED, null, null, null))
+                .extracting(BookingRespDto::id).containsExactly(current.id());
+        assertThat(bookingService.getAllBookingsByItems(userDto1.id(), State.WAITING, null, null, null))
+                .extracting(BookingRespDto::id).containsExactly(future.id(), past.id());
+    }
+
+    @Test
+    void getAllBookingsByItemsPaged() {
+        UserDto userDto1 = userService.createUser(userDtoInit1);
+        UserDto userDto2 = userService.createUser(userDtoInit2);
+        ItemDto itemDto1 = itemService.createItem(userDto1.id(), itemDtoInit1);
+        ItemDto itemDto2 = itemService.createItem(userDto1.id(), itemDtoInit2);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        BookingRespDto older = bookingService.createBooking(new BookingDto(itemDto1.id(),
+                now.minusHours(2), now.minusHours(1)), userDto2.id());
+        BookingRespDto newer = bookingService.createBooking(new BookingDto(itemDto2.id(),
+                now.minusHours(1), now.minusMinutes(30)), userDto2.id());
+
+        List<BookingRespDto> firstPage = bookingService.getAllBookingsByItems(userDto1.id(), State.ALL,
+                null, null, 1);
+        BookingRespDto last = firstPage.get(firstPage.size() - 1);
+        List<BookingRespDto> secondPage = bookingService.getAllBookingsByItems(userDto1.id(), State.ALL,
+                last.start(), last.id(), 1);
+
+        assertThat(firstPage).extracting(BookingRespDto::id).containsExactly(newer.id());
+        assertThat(secondPage).extracting(BookingRespDto::id).containsExactly(older.id());
+        assertThatThrownBy(() ->
+                bookingService.getAllBookingsByItems(userDto1.id(), State.ALL, last.start(), null, 1))
+                .isInstanceOf(ValidationException.class);
+    }
+
     @Test
     void getAllBookingsByItemsWrongUser() {
         UserDto userDto1 = userService.createUser(userDtoInit1);
@@ -347,7 +656,7 @@ public class BookingServiceTest {
         bookingService.createBooking(bookingDto2, userDto2.id());
 
         assertThatThrownBy(() ->
-                bookingService.getAllBookingsByItems(10L, State.ALL))
+                bookingService.getAllBookingsByItems(10L, State.ALL, null, null, null))
                 .isInstanceOf(NotFoundException.class);
     }
 }
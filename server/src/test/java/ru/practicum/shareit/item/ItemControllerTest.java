@@ -10,23 +10,35 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.idempotency.IdempotencyFilter;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -52,6 +64,7 @@ public class ItemControllerTest {
 
         mvc = MockMvcBuilders
                 .standaloneSetup(itemController)
+                .addFilters(new IdempotencyFilter(mapper, 100, Duration.ofMinutes(1), DataSize.ofKilobytes(16)))
                 .build();
         userDto = new UserDto(0L, "user", "user@email.com");
         itemDto = new ItemDto(0L, "itemDto", "description", true, null,
@@ -79,6 +92,66 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.description").value("description"));
     }
 
+    @Test
+    void createItemWithIdempotencyKey() throws Exception {
+        when(itemService.createItem(anyLong(), any()))
+                .thenReturn(itemDto);
+
+        createItem(itemDto, "item-1")
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        createItem(itemDto, "item-1")
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.name").value("itemDto"));
+        createItem(new ItemDto(0L, "other", "description", true, null, null, null, null, null), "item-1")
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(itemService, times(1)).createItem(anyLong(), any());
+    }
+
+    @Test
+    void createItemWhileSameIdempotencyKeyInProgress() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemService.createItem(anyLong(), any()))
+                .thenAnswer(invocation -> {
+                    entered.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return itemDto;
+                });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> first = executor.submit(() ->
+                    createItem(itemDto, "item-1").andReturn().getResponse().getStatus());
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            createItem(itemDto, "item-1")
+                    .andExpect(status().isConflict());
+
+            release.countDown();
+            assertThat(first.get()).isEqualTo(200);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void importItems() throws Exception {
+        when(itemService.importItems(anyLong(), any()))
+                .thenReturn(List.of(ItemImportResultDto.created(1, 5L), ItemImportResultDto.failed(2, "error")));
+
+        mvc.perform(post("/items/batch")
+                        .content("{\"name\": \"item\"}\n{}")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header("X-Sharer-User-Id", userDto.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(5))
+                .andExpect(jsonPath("$[1].row").value(2))
+                .andExpect(jsonPath("$[1].error").value("error"));
+    }
+
     @Test
     void getItemById() throws Exception {
         when(itemService.getItemById(anyLong(), anyLong()))
@@ -115,12 +188,33 @@ public class ItemControllerTest {
                 }));
     }
 
+    @Test
+    void getSimilarItems() throws Exception {
+        when(itemService.getSimilarItems(anyString()))
+                .thenReturn(List.of(itemDto));
+
+        mvc.perform(get("/items/search/fuzzy?text=itemDot"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(itemDto.id()))
+                .andExpect(jsonPath("$[0].name").value(itemDto.name()));
+    }
+
+    @Test
+    void getNameSuggestions() throws Exception {
+        when(itemService.getNameSuggestions(anyString()))
+                .thenReturn(List.of(itemDto.name()));
+
+        mvc.perform(get("/items/suggest?prefix=it"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value(itemDto.name()));
+    }
+
     @Test
     void getItemByText() throws Exception {
-        when(itemService.getItemByText(anyString()))
+        when(itemService.getItemByText(anyString(), any(), any()))
                 .thenReturn(List.of(itemDto));
 
-        mvc.perform(get("/items/search?text=" + anyString())
+        mvc.perform(get("/items/search?text=item")
                         .content(mapper.writeValueAsString(itemDto))
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -176,4 +270,12 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.item.name").value("item"))
                 .andExpect(jsonPath("$.authorName").value("name"));
     }
+
+    private ResultActions createItem(ItemDto body, String idempotencyKey) throws Exception {
+        return mvc.perform(post("/items")
+                .content(mapper.writeValueAsString(body))
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Sharer-User-Id", userDto.id())
+                .header(IdempotencyFilter.IDEMPOTENCY_HEADER, idempotencyKey));
+    }
 }
@@ -13,11 +13,16 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.summary.ItemSummaryTracker;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -35,6 +40,8 @@ public class ItemServiceTest {
     BookingService bookingService;
     @Autowired
     ItemRequestService itemRequestService;
+    @Autowired
+    ItemSummaryTracker itemSummaryTracker;
     static ItemDto itemDtoInit1;
     static ItemDto itemDtoInit2;
     static ItemDto itemDtoInitReq;
@@ -74,6 +81,45 @@ public class ItemServiceTest {
 
     }
 
+    @Test
+    void importItems() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        UserDto requesterDto = userService.createUser(userDtoInit2);
+        Long requestId = itemRequestService.createItemRequest(new ItemRequestDto("drill"), requesterDto.id()).id();
+        String rows = String.join("\n",
+                "{\"name\": \"drill\", \"description\": \"cordless drill\", \"available\": true, " +
+                        "\"requestId\": " + requestId + "}",
+                "{\"name\": \"\", \"description\": \"no name\", \"available\": true}",
+                "{\"name\": \"saw\", \"description\": \"hand saw\", \"available\": true, \"requestId\": 999999}",
+                "{\"name\": \"ladder\", \"description\": \"step ladder\", \"available\": false}",
+                "{\"name\": \"broken\"");
+
+        List<ItemImportResultDto> results = itemService.importItems(userDto.id(),
+                new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(results).extracting(ItemImportResultDto::row).containsExactly(1, 2, 3, 4, 5);
+        assertThat(results).extracting(result -> result.id() != null)
+                .containsExactly(true, false, false, true, false);
+        List<ItemDto> items = itemService.getAllUserItems(userDto.id());
+        assertThat(items).extracting(ItemDto::name).containsExactlyInAnyOrder("drill", "ladder");
+        assertThat(items).filteredOn(item -> item.name().equals("drill"))
+                .extracting(ItemDto::requestId).containsExactly(requestId);
+        assertThat(itemService.getItemByText("cordless", null, null)).hasSize(1);
+    }
+
+    @Test
+    void importItemsFromJsonArray() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        String rows = "[{\"name\": \"drill\", \"description\": \"drill\", \"available\": true}, " +
+                "{\"name\": \"saw\", \"description\": \"saw\", \"available\": true}]";
+
+        List<ItemImportResultDto> results = itemService.importItems(userDto.id(),
+                new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(results).allMatch(result -> result.id() != null);
+        assertThat(itemService.getAllUserItems(userDto.id())).hasSize(2);
+    }
+
     @Test
     void updateItem() {
         UserDto userDto = userService.createUser(userDtoInit1);
@@ -105,6 +151,32 @@ public class ItemServiceTest {
         assertThat(findedItemDto.available()).isEqualTo(itemDto.available());
     }
 
+    @Test
+    void getItemByIdWithBookings() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        UserDto bookerDto = userService.createUser(userDtoInit2);
+        ItemDto itemDto = itemService.createItem(userDto.id(), itemDtoInit1);
+        BookingRespDto older = bookingService.createBooking(new BookingDto(itemDto.id(),
+                LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2)), bookerDto.id());
+        BookingRespDto last = bookingService.createBooking(new BookingDto(itemDto.id(),
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1)), bookerDto.id());
+        BookingRespDto next = bookingService.createBooking(new BookingDto(itemDto.id(),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)), bookerDto.id());
+        bookingService.createBooking(new BookingDto(itemDto.id(),
+                LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4)), bookerDto.id());
+        bookingService.approveBooking(older.id(), userDto.id(), true);
+        bookingService.approveBooking(last.id(), userDto.id(), true);
+
+        ItemDto ownerView = itemService.getItemById(itemDto.id(), userDto.id());
+        ItemDto bookerView = itemService.getItemById(itemDto.id(), bookerDto.id());
+
+        assertThat(ownerView.lastBooking().id()).isEqualTo(last.id());
+        assertThat(ownerView.nextBooking().id()).isEqualTo(next.id());
+        assertThat(ownerView.owner().id()).isEqualTo(userDto.id());
+        assertThat(bookerView.lastBooking()).isNull();
+        assertThat(bookerView.nextBooking()).isNull();
+    }
+
     @Test
     void getAllUserItems() {
         UserDto userDto = userService.createUser(userDtoInit1);
@@ -115,6 +187,36 @@ public class ItemServiceTest {
         assertThat(findedItems.size()).isEqualTo(2);
     }
 
+    @Test
+    void getAllUserItemsWithSummary() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        UserDto bookerDto = userService.createUser(userDtoInit2);
+        ItemDto itemDto = itemService.createItem(userDto.id(), itemDtoInit1);
+        LocalDateTime now = LocalDateTime.now();
+        BookingRespDto past = bookingService.createBooking(new BookingDto(itemDto.id(),
+                now.minusDays(2), now.minusDays(1)), bookerDto.id());
+        BookingRespDto next = bookingService.createBooking(new BookingDto(itemDto.id(),
+                now.plusDays(1), now.plusDays(2)), bookerDto.id());
+        BookingRespDto later = bookingService.createBooking(new BookingDto(itemDto.id(),
+                now.plusDays(3), now.plusDays(4)), bookerDto.id());
+        bookingService.approveBooking(later.id(), userDto.id(), true);
+        bookingService.approveBooking(next.id(), userDto.id(), true);
+        bookingService.approveBooking(past.id(), userDto.id(), true);
+        itemService.addComment(itemDto.id(), bookerDto.id(), new CommentDto("comment"));
+
+        ItemDto listed = itemService.getAllUserItems(userDto.id()).getFirst();
+
+        assertThat(listed.lastBooking().id()).isEqualTo(past.id());
+        assertThat(listed.nextBooking().id()).isEqualTo(next.id());
+        assertThat(listed.comments()).hasSize(1);
+
+        itemSummaryTracker.rollForward(now.plusDays(1).plusHours(12));
+        ItemDto rolled = itemService.getAllUserItems(userDto.id()).getFirst();
+
+        assertThat(rolled.lastBooking().id()).isEqualTo(next.id());
+        assertThat(rolled.nextBooking().id()).isEqualTo(later.id());
+    }
+
     @Test
     void getAllWrongUserItems() {
         assertThatThrownBy(() ->
@@ -126,8 +228,8 @@ public class ItemServiceTest {
         UserDto userDto = userService.createUser(userDtoInit1);
         ItemDto itemDto1 = itemService.createItem(userDto.id(), itemDtoInit1);
         ItemDto itemDto2 = itemService.createItem(userDto.id(), itemDtoInit2);
-        List<ItemDto> findedByName = itemService.getItemByText(itemDto1.name());
-        List<ItemDto> findedByDesc = itemService.getItemByText(itemDto1.description());
+        List<ItemDto> findedByName = itemService.getItemByText(itemDto1.name(), null, null);
+        List<ItemDto> findedByDesc = itemService.getItemByText(itemDto1.description(), null, null);
 
         assertThat(findedByName.size()).isEqualTo(1);
         assertThat(findedByDesc.size()).isEqualTo(1);
@@ -138,13 +240,115 @@ public class ItemServiceTest {
         UserDto userDto = userService.createUser(userDtoInit1);
         ItemDto itemDto1 = itemService.createItem(userDto.id(), itemDtoInit1);
         ItemDto itemDto2 = itemService.createItem(userDto.id(), itemDtoInit2);
-        List<ItemDto> findedByName = itemService.getItemByText("");
-        List<ItemDto> findedByDesc = itemService.getItemByText("");
+        List<ItemDto> findedByName = itemService.getItemByText("", null, null);
+        List<ItemDto> findedByDesc = itemService.getItemByText("", null, null);
 
         assertThat(findedByName.size()).isEqualTo(0);
         assertThat(findedByDesc.size()).isEqualTo(0);
     }
 
+    @Test
+    void getItemByTextPartOfWord() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        ItemDto itemDto1 = itemService.createItem(userDto.id(), itemDtoInit1);
+        ItemDto itemDto2 = itemService.createItem(userDto.id(), itemDtoInit2);
+        List<ItemDto> findedItems = itemService.getItemByText("ESCRIPTION", null, null);
+
+        assertThat(findedItems).extracting(ItemDto::id).containsExactly(itemDto1.id(), itemDto2.id());
+    }
+
+    @Test
+    void getItemByTextPaged() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        ItemDto itemDto1 = itemService.createItem(userDto.id(), itemDtoInit1);
+        ItemDto itemDto2 = itemService.createItem(userDto.id(), itemDtoInit2);
+        List<ItemDto> firstPage = itemService.getItemByText("name", null, 1);
+        List<ItemDto> secondPage = itemService.getItemByText("name", firstPage.getLast().id(), 1);
+
+        assertThat(firstPage).extracting(ItemDto::id).containsExactly(itemDto1.id());
+        assertThat(secondPage).extracting(ItemDto::id).containsExactly(itemDto2.id());
+        assertThatThrownBy(() ->
+                itemService.getItemByText("name", null, 0)).isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void getItemByShortAndMultiTokenTextPaged() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        ItemDto drill = itemService.createItem(userDto.id(), new ItemDto(null, "Дрель", "дрель ударная", true,
+                null, null, null, null, null));
+        ItemDto cordless = itemService.createItem(userDto.id(), new ItemDto(null, "Дрель", "аккумуляторная", true,
+                null, null, null, null, null));
+        ItemDto hammer = itemService.createItem(userDto.id(), new ItemDto(null, "Молоток", "ударный", true, null,
+                null, null, null, null));
+        List<ItemDto> firstPage = itemService.getItemByText("у", null, 2);
+        List<ItemDto> secondPage = itemService.getItemByText("у", firstPage.getLast().id(), 2);
+
+        assertThat(firstPage).extracting(ItemDto::id).containsExactly(drill.id(), cordless.id());
+        assertThat(secondPage).extracting(ItemDto::id).containsExactly(hammer.id());
+        assertThat(itemService.getItemByText("рель удар", null, null))
+                .extracting(ItemDto::id).containsExactly(drill.id());
+        assertThat(itemService.getItemByText("дрель ударн", drill.id(), null)).isEmpty();
+    }
+
+    @Test
+    void getItemByTextAfterUpdate() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        ItemDto itemDto = itemService.createItem(userDto.id(), itemDtoInit1);
+        itemService.updateItem(itemDto.id(), userDto.id(), new ItemDto(null, "drill", null, null, null,
+                null, null, null, null));
+
+        assertThat(itemService.getItemByText("name1", null, null)).isEmpty();
+        assertThat(itemService.getItemByText("drill", null, null)).hasSize(1);
+
+        itemService.updateItem(itemDto.id(), userDto.id(), new ItemDto(null, null, null, false, null,
+                null, null, null, null));
+
+        assertThat(itemService.getItemByText("drill", null, null)).isEmpty();
+    }
+
+    @Test
+    void getItemByTextAfterDelete() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        ItemDto itemDto = itemService.createItem(userDto.id(), itemDtoInit1);
+        itemService.deleteItem(itemDto.id());
+
+        assertThat(itemService.getItemByText("name1", null, null)).isEmpty();
+    }
+
+    @Test
+    void getSimilarItems() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        ItemDto drill = itemService.createItem(userDto.id(), new ItemDto(null, "перфоратор", "мощный",
+                true, null, null, null, null, null));
+        ItemDto saw = itemService.createItem(userDto.id(), new ItemDto(null, "пила", "перфоратор ручной",
+                true, null, null, null, null, null));
+        itemService.createItem(userDto.id(), itemDtoInit1);
+        List<ItemDto> findedItems = itemService.getSimilarItems("перфаратор");
+
+        assertThat(findedItems).extracting(ItemDto::id).containsExactly(drill.id(), saw.id());
+    }
+
+    @Test
+    void getNameSuggestions() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        itemService.createItem(userDto.id(), new ItemDto(null, "Дрель", "ударная", true, null,
+                null, null, null, null));
+        itemService.createItem(userDto.id(), new ItemDto(null, "Дрель", "аккумуляторная", true, null,
+                null, null, null, null));
+        ItemDto drill = itemService.createItem(userDto.id(), new ItemDto(null, "Дрель-шуруповёрт", "мощная",
+                true, null, null, null, null, null));
+        itemService.createItem(userDto.id(), new ItemDto(null, "Домкрат", "гидравлический", true, null,
+                null, null, null, null));
+
+        assertThat(itemService.getNameSuggestions("д")).containsExactly("Дрель", "Домкрат", "Дрель-шуруповёрт");
+        assertThat(itemService.getNameSuggestions("ДРЕ")).containsExactly("Дрель", "Дрель-шуруповёрт");
+        assertThat(itemService.getNameSuggestions("пила")).isEmpty();
+
+        itemService.deleteItem(drill.id());
+
+        assertThat(itemService.getNameSuggestions("дре")).containsExactly("Дрель");
+    }
+
     @Test
     void deleteItem() {
         UserDto userDto = userService.createUser(userDtoInit1);
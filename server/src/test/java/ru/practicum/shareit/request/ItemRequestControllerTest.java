@@ -10,19 +10,32 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.idempotency.IdempotencyFilter;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestRespDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -44,12 +57,13 @@ public class ItemRequestControllerTest {
     void init() {
         mvc = MockMvcBuilders
                 .standaloneSetup(controller)
+                .addFilters(new IdempotencyFilter(mapper, 100, Duration.ofMinutes(1), DataSize.ofKilobytes(16)))
                 .build();
 
         userDto = new UserDto(0L, "user", "user@email.com");
         itemRequestDto = new ItemRequestDto("description");
         itemRequestRespDto = new ItemRequestRespDto(1L, "description",
-                userDto, null, null);
+                userDto, null, null, null);
     }
 
     @Test
@@ -66,6 +80,59 @@ public class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.description").value("description"));
     }
 
+    @Test
+    void createItemRequestWithIdempotencyKey() throws Exception {
+        when(itemRequestService.createItemRequest(any(ItemRequestDto.class), anyLong()))
+                .thenReturn(itemRequestRespDto);
+
+        createItemRequest(itemRequestDto, "request-1")
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        createItemRequest(itemRequestDto, "request-1")
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id").value(1));
+        createItemRequest(new ItemRequestDto("other"), "request-1")
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(itemRequestService, times(1)).createItemRequest(any(ItemRequestDto.class), anyLong());
+    }
+
+    @Test
+    void createItemRequestWhileSameIdempotencyKeyInProgress() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemRequestService.createItemRequest(any(ItemRequestDto.class), anyLong()))
+                .thenAnswer(invocation -> {
+                    entered.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return itemRequestRespDto;
+                });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> first = executor.submit(() ->
+                    createItemRequest(itemRequestDto, "request-1").andReturn().getResponse().getStatus());
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            createItemRequest(itemRequestDto, "request-1")
+                    .andExpect(status().isConflict());
+
+            release.countDown();
+            assertThat(first.get()).isEqualTo(200);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void createItemRequestWithIdempotencyKeyAndTooLargeBody() throws Exception {
+        createItemRequest(new ItemRequestDto("x".repeat(20 * 1024)), "request-1")
+                .andExpect(status().isPayloadTooLarge());
+
+        verify(itemRequestService, times(0)).createItemRequest(any(ItemRequestDto.class), anyLong());
+    }
+
     @Test
     void getAllUserRequests() throws Exception {
         when(itemRequestService.getAllUserRequests(anyLong()))
@@ -87,7 +154,7 @@ public class ItemRequestControllerTest {
 
     @Test
     void getAllRequests() throws Exception {
-        when(itemRequestService.getAllRequests(anyLong()))
+        when(itemRequestService.getAllRequests(anyLong(), any(), any(), any()))
                 .thenReturn(List.of(itemRequestRespDto));
 
         mvc.perform(get("/requests/all")
@@ -116,4 +183,12 @@ public class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.description").value("description"));
     }
+
+    private ResultActions createItemRequest(ItemRequestDto body, String idempotencyKey) throws Exception {
+        return mvc.perform(post("/requests")
+                .content(mapper.writeValueAsString(body))
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Sharer-User-Id", userDto.id())
+                .header(IdempotencyFilter.IDEMPOTENCY_HEADER, idempotencyKey));
+    }
 }
@@ -7,6 +7,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestRespDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -25,6 +27,8 @@ public class ItemRequestServiceTest {
     UserService userService;
     @Autowired
     ItemRequestService itemRequestService;
+    @Autowired
+    ItemService itemService;
     static UserDto userDtoInit1;
     static UserDto userDtoInit2;
     static ItemRequestDto itemRequestDto;
@@ -69,9 +73,25 @@ public class ItemRequestServiceTest {
         ItemRequestRespDto itemRequestRespDto1 = itemRequestService.createItemRequest(itemRequestDto, userDto1.id());
         ItemRequestRespDto itemRequestRespDto2 = itemRequestService.createItemRequest(itemRequestDto, userDto2.id());
 
-        List<ItemRequestRespDto> requests = itemRequestService.getAllRequests(userDto1.id());
+        List<ItemRequestRespDto> requests = itemRequestService.getAllRequests(userDto1.id(), null, null, null);
 
-        assertThat(requests.size()).isEqualTo(2);
+        assertThat(requests).extracting(ItemRequestRespDto::id).containsExactly(itemRequestRespDto2.id());
+    }
+
+    @Test
+    void getAllRequestsPaged() {
+        UserDto userDto1 = userService.createUser(userDtoInit1);
+        UserDto userDto2 = userService.createUser(userDtoInit2);
+        ItemRequestRespDto older = itemRequestService.createItemRequest(itemRequestDto, userDto2.id());
+        ItemRequestRespDto newer = itemRequestService.createItemRequest(itemRequestDto, userDto2.id());
+
+        List<ItemRequestRespDto> firstPage = itemRequestService.getAllRequests(userDto1.id(), null, null, 1);
+        ItemRequestRespDto last = firstPage.getFirst();
+        List<ItemRequestRespDto> secondPage = itemRequestService.getAllRequests(userDto1.id(),
+                last.created(), last.id(), 1);
+
+        assertThat(firstPage).extracting(ItemRequestRespDto::id).containsExactly(newer.id());
+        assertThat(secondPage).extracting(ItemRequestRespDto::id).containsExactly(older.id());
     }
 
     @Test
@@ -83,4 +103,27 @@ public class ItemRequestServiceTest {
 
         assertThat(findedItemRequest.description()).isEqualTo(itemRequestRespDto.description());
     }
+
+    @Test
+    void getRequestByIdWithSuggestedItems() {
+        UserDto owner = userService.createUser(userDtoInit1);
+        UserDto requester = userService.createUser(userDtoInit2);
+        ItemDto drill = itemService.createItem(owner.id(), new ItemDto(null, "Дрель", "ударная", true, null,
+                null, null, null, null));
+        itemService.createItem(owner.id(), new ItemDto(null, "Велосипед", "горный", true, null,
+                null, null, null, null));
+        ItemRequestRespDto request = itemRequestService.createItemRequest(new ItemRequestDto("нужна дрель"),
+                requester.id());
+
+        ItemRequestRespDto found = itemRequestService.getRequestById(request.id());
+
+        assertThat(found.suggestedItems()).extracting(ItemDto::id).containsExactly(drill.id());
+
+        ItemDto secondDrill = itemService.createItem(owner.id(), new ItemDto(null, "Дрель", "аккумуляторная", true,
+                null, null, null, null, null));
+        ItemRequestRespDto refreshed = itemRequestService.getRequestById(request.id());
+
+        assertThat(refreshed.suggestedItems()).extracting(ItemDto::id)
+                .containsExactlyInAnyOrder(drill.id(), secondDrill.id());
+    }
 }
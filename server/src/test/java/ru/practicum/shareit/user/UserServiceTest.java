@@ -1,15 +1,27 @@
 package ru.practicum.shareit.user;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -20,6 +32,16 @@ import static org.assertj.core.api.Assertions.*;
 public class UserServiceTest {
     @Autowired
     UserService userService;
+    @Autowired
+    UserCache userCache;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    BookingService bookingService;
     static UserDto userDtoInit1;
     static UserDto userDtoInit2;
     static UserDto userDtoInitNull;
@@ -73,6 +95,58 @@ public class UserServiceTest {
         }).isInstanceOf(NotFoundException.class);
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void deleteUserRemovesOwnedItemsFromIndexes() {
+        UserDto owner = userService.createUser(userDtoInit1);
+        UserDto other = userService.createUser(userDtoInit2);
+        try {
+            itemService.createItem(owner.id(), new ItemDto(null, "Шуршалка", "садовая", true, null,
+                    null, null, null, null));
+            itemService.createItem(owner.id(), new ItemDto(null, "Шуршалка большая", "садовая", true, null,
+                    null, null, null, null));
+            ItemDto kept = itemService.createItem(other.id(), new ItemDto(null, "Шуршалка синяя", "садовая", true,
+                    null, null, null, null, null));
+
+            userService.deleteUserById(owner.id());
+
+            assertThat(itemService.getNameSuggestions("шурш")).containsExactly("Шуршалка синяя");
+            assertThat(itemService.getItemByText("шуршалка", null, 1))
+                    .extracting(ItemDto::id).containsExactly(kept.id());
+            assertThat(itemService.getSimilarItems("шуршалка"))
+                    .extracting(ItemDto::id).containsExactly(kept.id());
+        } finally {
+            userService.deleteUserById(other.id());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void deleteBookerRecomputesItemSummaries() {
+        UserDto owner = userService.createUser(userDtoInit1);
+        UserDto booker = userService.createUser(userDtoInit2);
+        UserDto otherBooker = userService.createUser(new UserDto(null, "user3", "user3@email.com"));
+        try {
+            ItemDto item = itemService.createItem(owner.id(), new ItemDto(null, "Шуршалка", "садовая", true, null,
+                    null, null, null, null));
+            LocalDateTime now = LocalDateTime.now();
+            BookingRespDto next = bookingService.createBooking(new BookingDto(item.id(),
+                    now.plusDays(1), now.plusDays(2)), booker.id());
+            BookingRespDto later = bookingService.createBooking(new BookingDto(item.id(),
+                    now.plusDays(3), now.plusDays(4)), otherBooker.id());
+            bookingService.approveBooking(next.id(), owner.id(), true);
+            bookingService.approveBooking(later.id(), owner.id(), true);
+
+            userService.deleteUserById(booker.id());
+
+            assertThat(itemService.getAllUserItems(owner.id()).getFirst().nextBooking().id())
+                    .isEqualTo(later.id());
+        } finally {
+            userService.deleteUserById(otherBooker.id());
+            userService.deleteUserById(owner.id());
+        }
+    }
+
     @Test
     void getUserById() {
         UserDto userDto = userService.createUser(userDtoInit1);
@@ -93,4 +167,51 @@ public class UserServiceTest {
         assertThat(users.size()).isEqualTo(2);
 
     }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void userCacheIsInvalidatedOnUpdateAndDelete() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        assertThat(userCache.findById(userDto.id())).hasValueSatisfying(view ->
+                assertThat(view.name()).isEqualTo(userDtoInit1.name()));
+
+        userService.updateUser(userDto.id(), userDtoInit2);
+        assertThat(userCache.findById(userDto.id())).hasValueSatisfying(view ->
+                assertThat(view.name()).isEqualTo(userDtoInit2.name()));
+
+        userService.deleteUserById(userDto.id());
+        assertThat(userCache.findById(userDto.id())).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void userCacheSkipsReadFromTransactionThatOutlivedDelete() {
+        UserDto userDto = userService.createUser(userDtoInit1);
+        TransactionTemplate deleting = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        deleting.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(userCache.findById(userDto.id())).isPresent();
+            deleting.executeWithoutResult(nested -> userService.deleteUserById(userDto.id()));
+        });
+
+        assertThat(userCache.findById(userDto.id())).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void getUserByIdIsServedFromSecondLevelCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        UserDto userDto = userService.createUser(userDtoInit1);
+        try {
+            userService.getUserById(userDto.id());
+            long hits = statistics.getSecondLevelCacheHitCount();
+
+            userService.getUserById(userDto.id());
+
+            assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(hits);
+        } finally {
+            userService.deleteUserById(userDto.id());
+        }
+    }
 }